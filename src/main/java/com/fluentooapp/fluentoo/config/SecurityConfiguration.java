@@ -1,6 +1,7 @@
 package com.fluentooapp.fluentoo.config;
 
 import com.fluentooapp.fluentoo.security.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,13 +56,16 @@ public class SecurityConfiguration {
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                                 .csrf(csrf -> csrf.disable())
                                 .authorizeHttpRequests(auth -> auth
+                                                // Async results are dispatched again once the request thread has
+                                                // returned; the request itself was authorized on its first dispatch
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 .requestMatchers(HttpMethod.GET, "/main/api/initialize-user-stats")
                                                 .permitAll()
                                                 .requestMatchers("/api/auth/**", "/auth/**", "/", "/index", "/error",
                                                                 "/dashboard/**")
                                                 .permitAll()
                                                 .requestMatchers("/api/subjects").permitAll()
-                                                .requestMatchers("/api/decks/public").permitAll()
+                                                .requestMatchers("/api/decks/public", "/api/decks/public/summary").permitAll()
                                                 .anyRequest().authenticated())
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -104,4 +104,27 @@ public class AuthRestController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/revoke-tokens")
+    public ResponseEntity<?> revokeTokens() {
+        try {
+            User user = authService.getCurrentUser();
+            if (user == null) {
+                throw new UnauthorizedException("User not authenticated");
+            }
+            userService.revokeTokens(user);
+            logger.info("Revoked all tokens for user: {}", user.getEmail());
+            return ResponseEntity.ok(Map.of("message", "All sessions have been signed out"));
+        } catch (UnauthorizedException e) {
+            logger.warn("Unauthorized access attempt to /revoke-tokens endpoint");
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        } catch (Exception e) {
+            logger.error("Error revoking tokens", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error revoking tokens");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
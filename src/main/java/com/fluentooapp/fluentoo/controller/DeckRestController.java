@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -33,7 +34,12 @@ public class DeckRestController {
 
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getMyDecks() {
+    public ResponseEntity<?> getMyDecks(@RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (isPageRequest(sort, cursor, size)) {
+            return ResponseEntity.ok(deckService.getMyDeckPage(sort, cursor, size));
+        }
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             if (auth == null) {
@@ -84,13 +90,17 @@ public class DeckRestController {
     }
 
     @GetMapping("/public")
-    @Transactional(readOnly = true)
-    public ResponseEntity<?> getPublicDecks() {
+    public ResponseEntity<?> getPublicDecks(@RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (isPageRequest(sort, cursor, size)) {
+            return ResponseEntity.ok(deckService.getPublicDeckPage(null, sort, cursor, size));
+        }
         try {
             logger.info("Getting public decks");
-            List<Deck> decks = deckService.getPublicDecks();
-            logger.info("Found {} public decks", decks.size());
-            return ResponseEntity.ok(decks);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(deckService.getPublicDecksJson());
         } catch (Exception e) {
             logger.error("Error getting public decks", e);
             Map<String, String> response = new HashMap<>();
@@ -103,10 +113,24 @@ public class DeckRestController {
         }
     }
 
+    @GetMapping("/public/summary")
+    public ResponseEntity<byte[]> getPublicDeckSummaries(@RequestParam(required = false) Long subjectId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(deckService.getPublicDeckSummariesJson(subjectId));
+    }
+
     @GetMapping("/public/subject/{subjectId}")
-    public ResponseEntity<List<Deck>> getPublicDecksBySubject(@PathVariable Long subjectId) {
-        List<Deck> decks = deckService.getPublicDecksBySubject(subjectId);
-        return ResponseEntity.ok(decks);
+    public ResponseEntity<?> getPublicDecksBySubject(@PathVariable Long subjectId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (isPageRequest(sort, cursor, size)) {
+            return ResponseEntity.ok(deckService.getPublicDeckPage(subjectId, sort, cursor, size));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(deckService.getPublicDecksBySubjectJson(subjectId));
     }
 
     @PostMapping
@@ -158,4 +182,12 @@ public class DeckRestController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Listings stay unpaginated for clients that pass none of the paging
+     * parameters.
+     */
+    private boolean isPageRequest(String sort, String cursor, Integer size) {
+        return sort != null || cursor != null || size != null;
+    }
+}
@@ -1,7 +1,14 @@
 package com.fluentooapp.fluentoo.controller;
 
+import com.fluentooapp.fluentoo.dto.LeaderboardDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardMetric;
+import com.fluentooapp.fluentoo.dto.LeaderboardScope;
 import com.fluentooapp.fluentoo.dto.MatchingGameDTO;
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
 import com.fluentooapp.fluentoo.service.MatchingGameService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +32,12 @@ public class MatchingGameController {
         return ResponseEntity.ok(matchingGameService.getGame(gameId));
     }
 
+    @PostMapping("/{gameId}/moves")
+    public ResponseEntity<MatchingMoveResponse> submitMove(@PathVariable Long gameId,
+            @Valid @RequestBody MatchingMoveRequest move) {
+        return ResponseEntity.ok(matchingGameService.submitMove(gameId, move));
+    }
+
     @PostMapping("/{gameId}/complete")
     public ResponseEntity<MatchingGameDTO> completeGame(@PathVariable Long gameId) {
         return ResponseEntity.ok(matchingGameService.completeGame(gameId));
@@ -39,4 +52,17 @@ public class MatchingGameController {
     public ResponseEntity<List<MatchingGameDTO>> getRecentGames() {
         return ResponseEntity.ok(matchingGameService.getRecentGames());
     }
-}
\ No newline at end of file
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<LeaderboardDto> getLeaderboard(
+            @RequestParam(defaultValue = "global") String scope,
+            @RequestParam(required = false) Long id,
+            @RequestParam(defaultValue = "time") String metric,
+            @RequestParam(required = false) Integer limit) {
+        LeaderboardScope leaderboardScope = LeaderboardScope.fromName(scope)
+                .orElseThrow(() -> new BadRequestException("Unknown leaderboard scope: " + scope));
+        LeaderboardMetric leaderboardMetric = LeaderboardMetric.fromName(metric)
+                .orElseThrow(() -> new BadRequestException("Unknown leaderboard metric: " + metric));
+        return ResponseEntity.ok(matchingGameService.getLeaderboard(leaderboardScope, id, leaderboardMetric, limit));
+    }
+}
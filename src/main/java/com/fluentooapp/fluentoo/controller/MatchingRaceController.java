@@ -0,0 +1,58 @@
+package com.fluentooapp.fluentoo.controller;
+
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingRaceDto;
+import com.fluentooapp.fluentoo.service.MatchingRaceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/matching-race")
+@RequiredArgsConstructor
+public class MatchingRaceController {
+
+    private final MatchingRaceService matchingRaceService;
+
+    @PostMapping("/rooms")
+    public CompletableFuture<ResponseEntity<MatchingRaceDto>> createRoom(@RequestParam Long deckId) {
+        return matchingRaceService.createRoom(deckId).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/rooms/{roomId}")
+    public CompletableFuture<ResponseEntity<MatchingRaceDto>> getRoom(@PathVariable String roomId) {
+        return matchingRaceService.getRoom(roomId).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/rooms/{roomId}/join")
+    public CompletableFuture<ResponseEntity<MatchingRaceDto>> joinRoom(@PathVariable String roomId) {
+        return matchingRaceService.joinRoom(roomId).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/rooms/{roomId}/start")
+    public CompletableFuture<ResponseEntity<MatchingRaceDto>> startRace(@PathVariable String roomId) {
+        return matchingRaceService.startRace(roomId).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/rooms/{roomId}/moves")
+    public CompletableFuture<ResponseEntity<MatchingMoveResponse>> submitMove(@PathVariable String roomId,
+            @Valid @RequestBody MatchingMoveRequest move) {
+        return matchingRaceService.submitMove(roomId, move).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/rooms/{roomId}/leave")
+    public CompletableFuture<ResponseEntity<MatchingRaceDto>> leaveRoom(@PathVariable String roomId) {
+        return matchingRaceService.leaveRoom(roomId).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(path = "/rooms/{roomId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String roomId) {
+        return matchingRaceService.subscribe(roomId);
+    }
+}
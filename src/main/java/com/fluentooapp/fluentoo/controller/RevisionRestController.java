@@ -1,14 +1,35 @@
 package com.fluentooapp.fluentoo.controller;
 
+import com.fluentooapp.fluentoo.entity.FlashCard;
 import com.fluentooapp.fluentoo.entity.Revision;
+import com.fluentooapp.fluentoo.entity.RevisionMode;
 import com.fluentooapp.fluentoo.service.RevisionService;
 import com.fluentooapp.fluentoo.service.UserService;
 import com.fluentooapp.fluentoo.dto.RevisionResponse;
+import com.fluentooapp.fluentoo.dto.AnswerBatchRequest;
+import com.fluentooapp.fluentoo.dto.AnswerBatchResponse;
 import com.fluentooapp.fluentoo.dto.AnswerRequest;
+import com.fluentooapp.fluentoo.dto.AnswerResponse;
+import com.fluentooapp.fluentoo.dto.DashboardDto;
+import com.fluentooapp.fluentoo.dto.DeckDueCount;
+import com.fluentooapp.fluentoo.dto.DueCardDto;
 import com.fluentooapp.fluentoo.dto.ProgressData;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
+import com.fluentooapp.fluentoo.repository.ProgressBucket;
+import com.fluentooapp.fluentoo.security.CurrentUserProvider;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -26,18 +47,24 @@ public class RevisionRestController {
 
     private final RevisionService revisionService;
     private final UserService userService;
+    private final CurrentUserProvider currentUserProvider;
+    private final ObjectMapper objectMapper;
 
-    public RevisionRestController(RevisionService revisionService, UserService userService) {
+    public RevisionRestController(RevisionService revisionService, UserService userService,
+            CurrentUserProvider currentUserProvider, ObjectMapper objectMapper) {
         this.revisionService = revisionService;
         this.userService = userService;
+        this.currentUserProvider = currentUserProvider;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/deck")
     @Transactional
-    public ResponseEntity<?> createDeckRevision(@RequestParam Long deckId) {
+    public ResponseEntity<?> createDeckRevision(@RequestParam Long deckId,
+            @RequestParam(defaultValue = "ALL") RevisionMode mode) {
         try {
             String userEmail = userService.getAuthUser().getEmail();
-            Revision revision = revisionService.newDeckRevision(deckId, userEmail);
+            Revision revision = revisionService.newDeckRevision(deckId, userEmail, mode);
 
             // Log the number of flashcards
             logger.info("Number of flashcards loaded: {}", revision.getTotalFlashcards());
@@ -46,7 +73,9 @@ public class RevisionRestController {
             return ResponseEntity.ok(response);
         } catch (IllegalStateException e) {
             Map<String, String> error = new HashMap<>();
-            error.put("message", "Cannot start revision with empty deck. Please add flashcards first.");
+            error.put("message", mode == RevisionMode.DUE
+                    ? "No flashcards are due for revision in this deck."
+                    : "Cannot start revision with empty deck. Please add flashcards first.");
             return ResponseEntity.status(400).body(error);
         } catch (Exception e) {
             logger.error("Error creating deck revision: {}", e.getMessage());
@@ -66,19 +95,55 @@ public class RevisionRestController {
         return ResponseEntity.ok(revision);
     }
 
+    @GetMapping("/{id}/flashcards")
+    public ResponseEntity<List<FlashCard>> getRevisionFlashcards(@PathVariable Long id, WebRequest request) {
+        // Answered from the version alone when the client's copy is current
+        String version = revisionService.getFlashcardsVersion(id);
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(version)
+                .body(revisionService.getRevisionFlashcards(id));
+    }
+
     @PostMapping("/{id}/answer")
     public ResponseEntity<?> submitAnswer(@PathVariable Long id, @RequestBody AnswerRequest answerRequest) {
         try {
-            RevisionResponse revision = revisionService.submitAnswer(id, answerRequest);
-            return ResponseEntity.ok(revision);
+            AnswerResponse response = revisionService.submitAnswer(id, answerRequest);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error submitting answer for revision {}: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to submit answer");
         }
     }
 
+    @PostMapping("/{id}/answers")
+    public ResponseEntity<AnswerBatchResponse> submitAnswers(@PathVariable Long id,
+            @Valid @RequestBody AnswerBatchRequest request) {
+        return ResponseEntity.ok(revisionService.submitAnswers(id, request.getAnswers()));
+    }
+
+    @GetMapping("/due-counts")
+    public ResponseEntity<List<DeckDueCount>> getDueCounts(@RequestParam(required = false) List<Long> deckIds) {
+        return ResponseEntity.ok(revisionService.getDueCounts(deckIds));
+    }
+
+    @GetMapping("/due-cards")
+    public ResponseEntity<List<DueCardDto>> getNextDueCards(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(revisionService.getNextDueCards(limit));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<RevisionResponse> completeRevision(@PathVariable Long id) {
+        return ResponseEntity.ok(revisionService.completeRevision(id));
+    }
+
     @GetMapping("/progress")
-    public ResponseEntity<?> getProgress() {
+    public ResponseEntity<?> getProgress(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String bucket) {
         try {
             logger.info("Fetching progress data");
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -88,7 +153,7 @@ public class RevisionRestController {
                         .body(Map.of("error", "Authentication required"));
             }
 
-            List<ProgressData> progressData = revisionService.getProgress();
+            List<ProgressData> progressData = revisionService.getProgress(from, to, toProgressBucket(bucket));
             logger.info("Successfully fetched progress data");
             return ResponseEntity.ok(progressData);
         } catch (Exception e) {
@@ -98,11 +163,44 @@ public class RevisionRestController {
         }
     }
 
+    // Its own handler: the declared StreamingResponseBody type is what selects the streaming return value handler
+    @GetMapping(path = "/progress", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamProgress(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String bucket) {
+        ProgressBucket progressBucket = toProgressBucket(bucket);
+        // Resolved here: the body is written after this thread returns
+        Long userId = currentUserProvider.getCurrentUser().getId();
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.writeStartArray();
+            revisionService.streamProgress(userId, from, to, progressBucket, row -> {
+                try {
+                    generator.writeObject(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static ProgressBucket toProgressBucket(String bucket) {
+        if (bucket == null) {
+            return null;
+        }
+        return ProgressBucket.fromUnit(bucket)
+                .orElseThrow(() -> new BadRequestException("Unknown bucket: " + bucket));
+    }
+
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboard() {
+    public ResponseEntity<?> getDashboard() {
         try {
             String userEmail = userService.getAuthUser().getEmail();
-            Map<String, Object> dashboardData = revisionService.getDashboardData(userEmail);
+            DashboardDto dashboardData = revisionService.getDashboardData(userEmail);
             return ResponseEntity.ok(dashboardData);
         } catch (Exception e) {
             logger.error("Error getting dashboard data", e);
@@ -0,0 +1,12 @@
+package com.fluentooapp.fluentoo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AnswerBatchRequest {
+    @NotEmpty(message = "Answers are required")
+    private List<AnswerRequest> answers;
+}
@@ -0,0 +1,24 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a batch of answers: what was applied and the resulting revision
+ * counters, without the deck or its flashcards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerBatchResponse {
+    private Long revisionId;
+    // Highest sequence applied so far; answers at or below it are ignored on retry
+    private long lastSequence;
+    private int applied;
+    private int skipped;
+    private int correctFlashcards;
+    private int totalFlashcards;
+    private double percentage;
+    private int pointsEarned;
+}
@@ -7,6 +7,10 @@ public class AnswerRequest {
     private Long flashcardId;
     private String answer;
     private boolean correct;
+    // Client-assigned, increasing within a revision; lets batches be retried safely
+    private Long sequence;
+    // Milliseconds the user took to answer, as measured by the client
+    private Integer latencyMs;
 
     public boolean getCorrect() {
         return correct;
@@ -0,0 +1,24 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a single answer. Clients keep the card list fetched at session
+ * start and only need the counters and which card to show next.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerResponse {
+    private Long revisionId;
+    // Whether the card's recorded answer is correct, as graded by the server for typed answers
+    private boolean correct;
+    private int correctFlashcards;
+    private int totalFlashcards;
+    private double percentage;
+    private int pointsEarned;
+    // Null when the revision has no further card
+    private Long nextFlashcardId;
+}
@@ -0,0 +1,28 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, assembled from a fixed number of bounded
+ * queries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    // Zero once a full day passed without activity
+    private int studyStreak;
+    private int pointsEarned;
+    private int cardsReviewed;
+    private int decksStudied;
+    private int matchingGamesCompleted;
+    private int matchingGamePoints;
+    private int todayPoints;
+    private int dailyPointsGoal;
+    private double dailyGoalPercentage;
+    private List<RecentRevisionDto> recentRevisions;
+}
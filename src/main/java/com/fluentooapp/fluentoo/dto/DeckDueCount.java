@@ -0,0 +1,10 @@
+package com.fluentooapp.fluentoo.dto;
+
+/**
+ * Number of flashcards of a deck whose revision time has passed.
+ *
+ * @param deckId   the ID of the deck.
+ * @param dueCount the number of due flashcards.
+ */
+public record DeckDueCount(Long deckId, long dueCount) {
+}
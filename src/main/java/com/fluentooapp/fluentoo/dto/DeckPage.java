@@ -0,0 +1,20 @@
+package com.fluentooapp.fluentoo.dto;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of a deck listing. Pass {@code nextCursor} back as {@code cursor} to
+ * read the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeckPage {
+    private List<Deck> items;
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog tile of a public deck. Built by a constructor projection so flashcard
+ * rows are counted, never loaded; card contents come from GET /api/decks/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeckSummaryDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Long subjectId;
+    private String subjectName;
+    private Long creatorId;
+    private String creatorFirstName;
+    private String creatorLastName;
+    private long cardCount;
+    private int launchCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A flashcard due for revision by the current user.
+ *
+ * @param cardId   the ID of the flashcard.
+ * @param deckId   the ID of the deck the flashcard belongs to.
+ * @param question the question of the flashcard.
+ * @param answer   the answer of the flashcard.
+ * @param envelope the envelope the card is in for the user.
+ * @param dueAt    when the card became due.
+ */
+public record DueCardDto(Long cardId, Long deckId, String question, String answer, int envelope,
+        LocalDateTime dueAt) {
+}
@@ -0,0 +1,18 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.util.List;
+
+/**
+ * The top of a matching game leaderboard and the position of the current user.
+ *
+ * @param scope        the games ranked.
+ * @param scopeId      the ID of the deck or subject, null for the global scope.
+ * @param metric       what players are ranked by.
+ * @param totalPlayers the number of ranked players.
+ * @param entries      the best ranked players, in order.
+ * @param currentUser  the entry of the current user, null when they have no
+ *                     ranked game.
+ */
+public record LeaderboardDto(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric, int totalPlayers,
+        List<LeaderboardEntryDto> entries, LeaderboardEntryDto currentUser) {
+}
@@ -0,0 +1,20 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The best game of a player on a leaderboard.
+ *
+ * @param rank                    the one-based position of the player.
+ * @param userId                  the ID of the player.
+ * @param firstName               the first name of the player.
+ * @param lastName                the last name of the player.
+ * @param gameId                  the ID of the game.
+ * @param deckId                  the ID of the played deck.
+ * @param completionTimeInSeconds the time taken to match every pair.
+ * @param totalAttempts           the number of attempts taken.
+ * @param playedAt                when the game started.
+ */
+public record LeaderboardEntryDto(int rank, Long userId, String firstName, String lastName, Long gameId,
+        Long deckId, Long completionTimeInSeconds, int totalAttempts, LocalDateTime playedAt) {
+}
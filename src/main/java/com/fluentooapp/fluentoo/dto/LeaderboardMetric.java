@@ -0,0 +1,29 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * What a leaderboard ranks players by. Ties are broken by the other measure,
+ * then by who got there first.
+ */
+public enum LeaderboardMetric {
+    FASTEST_TIME("time"),
+    FEWEST_ATTEMPTS("attempts");
+
+    private final String name;
+
+    LeaderboardMetric(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Optional<LeaderboardMetric> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(metric -> metric.name.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
@@ -0,0 +1,30 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sets of matching games a leaderboard ranks: the games of every public deck,
+ * the games of a deck, or the games of the public decks of a subject.
+ */
+public enum LeaderboardScope {
+    GLOBAL("global"),
+    DECK("deck"),
+    SUBJECT("subject");
+
+    private final String name;
+
+    LeaderboardScope(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Optional<LeaderboardScope> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(scope -> scope.name.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -15,4 +16,7 @@ public class MatchingGameDTO {
     private int totalPairs;
     private int totalAttempts;
     private LocalDateTime createdAt;
+    // Board of a game in play: question tiles in question order, answer tiles in shuffled order
+    private List<MatchingTileDTO> questions;
+    private List<MatchingTileDTO> answers;
 }
\ No newline at end of file
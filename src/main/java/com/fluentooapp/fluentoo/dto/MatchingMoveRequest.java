@@ -0,0 +1,13 @@
+package com.fluentooapp.fluentoo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class MatchingMoveRequest {
+    // Positions of the chosen question and answer tiles, as listed on the board
+    @NotNull
+    private Integer questionPosition;
+    @NotNull
+    private Integer answerPosition;
+}
@@ -0,0 +1,23 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a matching game move, as checked and timed by the server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchingMoveResponse {
+    // Null in a race, whose games are only written when the room closes
+    private Long gameId;
+    private boolean correct;
+    private int matchedPairs;
+    private int totalPairs;
+    private int totalAttempts;
+    private boolean completed;
+    // Set once the last pair is matched
+    private Long completionTimeInSeconds;
+}
@@ -0,0 +1,22 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.util.List;
+
+/**
+ * A matching race room as seen by one of its players. Every player races on
+ * the same board, which is only revealed once the race starts.
+ *
+ * @param roomId      the ID of the room, shared to invite players.
+ * @param deckId      the ID of the deck the board is drawn from.
+ * @param hostId      the ID of the player who created the room.
+ * @param status      the lifecycle status of the room.
+ * @param totalPairs  the number of pairs on the board.
+ * @param players     the players, in joining order.
+ * @param questions   the question tiles in question order, with the pairs
+ *                    matched by the viewing player; null while the room waits.
+ * @param answers     the answer tiles in shuffled order, likewise; null while
+ *                    the room waits.
+ */
+public record MatchingRaceDto(String roomId, Long deckId, Long hostId, MatchingRaceStatus status, int totalPairs,
+        List<MatchingRacePlayerDto> players, List<MatchingTileDTO> questions, List<MatchingTileDTO> answers) {
+}
@@ -0,0 +1,18 @@
+package com.fluentooapp.fluentoo.dto;
+
+/**
+ * A player of a matching race room and their progress.
+ *
+ * @param userId                  the ID of the player.
+ * @param firstName               the first name of the player.
+ * @param lastName                the last name of the player.
+ * @param matchedPairs            the number of pairs matched so far.
+ * @param totalAttempts           the number of attempts so far.
+ * @param completionTimeInSeconds the time taken to match every pair, null until
+ *                                then.
+ * @param place                   the one-based finishing place, null until the
+ *                                player finished.
+ */
+public record MatchingRacePlayerDto(Long userId, String firstName, String lastName, int matchedPairs,
+        int totalAttempts, Long completionTimeInSeconds, Integer place) {
+}
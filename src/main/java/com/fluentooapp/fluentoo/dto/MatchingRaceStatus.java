@@ -0,0 +1,12 @@
+package com.fluentooapp.fluentoo.dto;
+
+/**
+ * Lifecycle of a matching race room: players join while it waits, race once
+ * the host starts it, and the room closes when every player finished, left or
+ * ran out of time.
+ */
+public enum MatchingRaceStatus {
+    WAITING,
+    RUNNING,
+    CLOSED
+}
@@ -0,0 +1,22 @@
+package com.fluentooapp.fluentoo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed matching game as ranked by the leaderboards.
+ *
+ * @param gameId                  the ID of the game.
+ * @param userId                  the ID of the player.
+ * @param firstName               the first name of the player.
+ * @param lastName                the last name of the player.
+ * @param deckId                  the ID of the played deck.
+ * @param subjectId               the ID of the subject of the deck.
+ * @param publicDeck              whether the deck is public; only games on
+ *                                public decks are ranked beyond their deck.
+ * @param completionTimeInSeconds the time taken to match every pair.
+ * @param totalAttempts           the number of attempts taken.
+ * @param playedAt                when the game started.
+ */
+public record MatchingResult(Long gameId, Long userId, String firstName, String lastName, Long deckId,
+        Long subjectId, boolean publicDeck, Long completionTimeInSeconds, int totalAttempts, LocalDateTime playedAt) {
+}
@@ -0,0 +1,19 @@
+package com.fluentooapp.fluentoo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A question or answer tile of a matching board. Moves name tiles by their
+ * position in the list they were sent in, which the server maps back to the
+ * pairs of the board, so nothing but the text tells which tiles pair up.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchingTileDTO {
+    private int position;
+    private String text;
+    private boolean matched;
+}
@@ -0,0 +1,21 @@
+package com.fluentooapp.fluentoo.dto;
+
+import com.fluentooapp.fluentoo.entity.RevisionMode;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revision as listed on the dashboard.
+ *
+ * @param id                the ID of the revision.
+ * @param deckId            the ID of the revised deck.
+ * @param deckName          the name of the revised deck.
+ * @param mode              whether every card or only the due ones were revised.
+ * @param totalFlashcards   the number of flashcards in the revision.
+ * @param correctFlashcards the number of correct answers.
+ * @param score             the percentage of correct answers.
+ * @param createdAt         when the revision started.
+ */
+public record RecentRevisionDto(Long id, Long deckId, String deckName, RevisionMode mode, int totalFlashcards,
+        int correctFlashcards, double score, LocalDateTime createdAt) {
+}
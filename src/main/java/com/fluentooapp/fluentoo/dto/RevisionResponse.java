@@ -15,9 +15,11 @@ public class RevisionResponse {
     private double score;
     private int totalFlashcards;
     private int correctFlashcards;
+    private int answeredFlashcards;
     private double percentage;
     private Deck deck;
     private List<FlashCard> flashcards;
+    private Long nextFlashcardId;
 
     public RevisionResponse(Long id, double score) {
         this.id = id;
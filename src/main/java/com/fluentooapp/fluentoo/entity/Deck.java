@@ -1,5 +1,6 @@
 package com.fluentooapp.fluentoo.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -7,6 +8,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -15,6 +17,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "decks", indexes = {
 		@Index(name = "idx_deck_name", columnList = "name"),
 		@Index(name = "idx_deck_subject", columnList = "subject_id"),
@@ -55,6 +58,11 @@ public class Deck {
 	@Column(name = "launch_count", nullable = false)
 	private int launchCount = 0;
 
+	// Launches counted in memory but not yet written to launch_count
+	@Transient
+	@JsonIgnore
+	private int unflushedLaunchCount = 0;
+
 	@Column(nullable = false)
 	private LocalDateTime createdAt;
 
@@ -71,7 +79,7 @@ public class Deck {
 		updatedAt = LocalDateTime.now();
 	}
 
-	public void incrementLaunchCount() {
-		this.launchCount++;
+	public int getLaunchCount() {
+		return launchCount + unflushedLaunchCount;
 	}
 }
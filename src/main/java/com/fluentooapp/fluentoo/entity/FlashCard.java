@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "flashcards")
+@Table(name = "flashcards", indexes = {
+		@Index(name = "idx_flashcard_deck", columnList = "deck_id")
+})
 public class FlashCard {
 
 	@Id
@@ -48,8 +50,4 @@ public class FlashCard {
 	protected void onCreate() {
 		createdAt = LocalDateTime.now();
 	}
-
-	public boolean checkAnswer(String answer) {
-		return this.answer.trim().equalsIgnoreCase(answer.trim());
-	}
 }
@@ -13,11 +13,11 @@ public class MatchingGame {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "deck_id", nullable = false)
     private Deck deck;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -25,6 +25,9 @@ public class MatchingGame {
     private int totalPairs;
     private int totalAttempts;
 
+    @Column(name = "board_seed")
+    private Long boardSeed;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -1,6 +1,7 @@
 package com.fluentooapp.fluentoo.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,9 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "revisions")
+@Table(name = "revisions", indexes = {
+        @Index(name = "idx_revision_user_created", columnList = "user_id, created_at")
+})
 public class Revision {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,6 +41,28 @@ public class Revision {
     @Column(name = "correct_flashcards")
     private int correctFlashcards = 0;
 
+    // Highest client sequence number of an applied answer batch
+    @Column(name = "last_answer_seq", nullable = false)
+    private long lastAnswerSequence = 0;
+
+    // Flashcard ids in the order they are studied
+    @JsonIgnore
+    @Column(name = "card_order")
+    private long[] cardOrder;
+
+    // Bitsets over positions in cardOrder, see java.util.BitSet#toByteArray
+    @JsonIgnore
+    @Column(name = "answered_cards")
+    private byte[] answeredCards;
+
+    @JsonIgnore
+    @Column(name = "correct_cards")
+    private byte[] correctCards;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RevisionMode mode = RevisionMode.ALL;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,8 @@
+package com.fluentooapp.fluentoo.entity;
+
+public enum RevisionMode {
+    // Every card of the deck
+    ALL,
+    // Only cards whose revision time has passed
+    DUE
+}
@@ -37,6 +37,10 @@ public class User implements UserDetails {
 	@Column(nullable = false)
 	private LocalDateTime createdAt = LocalDateTime.now();
 
+	@JsonIgnore
+	@Column(name = "token_version", nullable = false)
+	private int tokenVersion = 0;
+
 	@JsonManagedReference
 	@OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
 	private UserStats userStats;
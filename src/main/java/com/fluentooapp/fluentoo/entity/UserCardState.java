@@ -0,0 +1,31 @@
+package com.fluentooapp.fluentoo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leitner scheduling of one flashcard for one learner. Cards a learner has
+ * never answered have no row and count as due.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_card_state", indexes = {
+		@Index(name = "idx_user_card_state_due", columnList = "user_id, due_at")
+})
+public class UserCardState {
+
+	@EmbeddedId
+	private UserCardStateId id;
+
+	@Column(nullable = false)
+	private int envelope;
+
+	@Column(name = "due_at", nullable = false)
+	private LocalDateTime dueAt;
+}
@@ -0,0 +1,22 @@
+package com.fluentooapp.fluentoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class UserCardStateId implements Serializable {
+
+	@Column(name = "user_id")
+	private Long userId;
+
+	@Column(name = "card_id")
+	private Long cardId;
+}
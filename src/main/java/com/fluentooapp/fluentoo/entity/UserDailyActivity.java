@@ -0,0 +1,31 @@
+package com.fluentooapp.fluentoo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Activity totals of one learner on one day, incremented in the transaction
+ * of every answer and completed matching game. Days without activity have no
+ * row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_daily_activity")
+public class UserDailyActivity {
+
+	@EmbeddedId
+	private UserDailyActivityId id;
+
+	@Column(nullable = false)
+	private int cards;
+
+	@Column(nullable = false)
+	private int points;
+
+	@Column(nullable = false)
+	private int games;
+}
@@ -0,0 +1,24 @@
+package com.fluentooapp.fluentoo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class UserDailyActivityId implements Serializable {
+
+	@Column(name = "user_id")
+	private Long userId;
+
+	// Quoted because DAY is a reserved word in some databases
+	@Column(name = "`day`")
+	private LocalDate day;
+}
@@ -5,12 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "user_stats")
 @Data
-@Builder
+@Builder(toBuilder = true)
+@DynamicUpdate
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserStats {
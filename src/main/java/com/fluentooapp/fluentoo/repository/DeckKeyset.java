@@ -0,0 +1,10 @@
+package com.fluentooapp.fluentoo.repository;
+
+/**
+ * Position of the last deck of a page: its sort key and id.
+ *
+ * @param value the value of the sort property.
+ * @param id    the ID of the deck.
+ */
+public record DeckKeyset(Object value, Long id) {
+}
@@ -1,30 +1,38 @@
 package com.fluentooapp.fluentoo.repository;
 
+import com.fluentooapp.fluentoo.dto.DeckSummaryDto;
 import com.fluentooapp.fluentoo.entity.Deck;
 import com.fluentooapp.fluentoo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.jpa.repository.EntityGraph;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface DeckRepository extends JpaRepository<Deck, Long> {
+public interface DeckRepository extends JpaRepository<Deck, Long>, DeckRepositoryCustom {
 
     @Query("SELECT DISTINCT d FROM Deck d LEFT JOIN FETCH d.subject WHERE d.createdBy = :user")
     List<Deck> findByCreatedBy(@Param("user") User user);
 
-    @Query("SELECT DISTINCT d FROM Deck d LEFT JOIN FETCH d.subject LEFT JOIN FETCH d.flashCards WHERE d.id = :id")
-    Optional<Deck> findByIdWithDetails(@Param("id") Long id);
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DeckSummaryDto(d.id, d.name, d.description, s.id, s.name, "
+            + "u.id, u.firstName, u.lastName, (SELECT COUNT(f) FROM FlashCard f WHERE f.deck = d), "
+            + "d.launchCount, d.createdAt) "
+            + "FROM Deck d JOIN d.subject s JOIN d.createdBy u WHERE d.isPublic = true")
+    List<DeckSummaryDto> findPublicDeckSummaries();
 
-    @EntityGraph(attributePaths = { "subject", "flashCards", "createdBy" })
-    @Query("SELECT DISTINCT d FROM Deck d WHERE d.isPublic = true")
-    List<Deck> findByIsPublicTrue();
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DeckSummaryDto(d.id, d.name, d.description, s.id, s.name, "
+            + "u.id, u.firstName, u.lastName, (SELECT COUNT(f) FROM FlashCard f WHERE f.deck = d), "
+            + "d.launchCount, d.createdAt) "
+            + "FROM Deck d JOIN d.subject s JOIN d.createdBy u WHERE s.id = :subjectId AND d.isPublic = true")
+    List<DeckSummaryDto> findPublicDeckSummariesBySubjectId(@Param("subjectId") Long subjectId);
 
-    @EntityGraph(attributePaths = { "subject", "flashCards", "createdBy" })
-    @Query("SELECT DISTINCT d FROM Deck d WHERE d.subject.id = :subjectId AND d.isPublic = true")
-    List<Deck> findBySubjectIdAndIsPublicTrue(@Param("subjectId") Long subjectId);
+    // Marks the card list of the decks as changed, which moves their ETag
+    @Modifying
+    @Query("UPDATE Deck d SET d.updatedAt = :now WHERE d.id IN :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
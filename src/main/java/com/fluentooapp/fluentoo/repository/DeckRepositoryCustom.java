@@ -0,0 +1,58 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.User;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DeckRepositoryCustom {
+
+    /**
+     * Returns the deck with its subject, creator and flashcards initialized, in
+     * one query for the deck and one for its flashcards.
+     *
+     * @param id the ID of the deck.
+     * @return the deck, if found.
+     */
+    Optional<Deck> findByIdWithDetails(Long id);
+
+    /**
+     * Returns all public decks with subject, creator and flashcards initialized.
+     * Flashcards are loaded for batches of decks with one IN query per batch.
+     *
+     * @return the public decks.
+     */
+    List<Deck> findByIsPublicTrue();
+
+    /**
+     * Returns the public decks of a subject with subject, creator and flashcards
+     * initialized.
+     *
+     * @param subjectId the ID of the subject.
+     * @return the public decks of the subject.
+     */
+    List<Deck> findBySubjectIdAndIsPublicTrue(Long subjectId);
+
+    /**
+     * Returns the next page of public decks after the given position.
+     *
+     * @param subjectId the subject to filter on, or null for all subjects.
+     * @param sort      the order of the listing.
+     * @param after     the position of the last deck of the previous page, or null.
+     * @param limit     the maximum number of decks.
+     * @return the decks with subject, creator and flashcards initialized.
+     */
+    List<Deck> findPublicPage(Long subjectId, DeckSort sort, DeckKeyset after, int limit);
+
+    /**
+     * Returns the next page of decks created by the user after the given position.
+     *
+     * @param user  the creator of the decks.
+     * @param sort  the order of the listing.
+     * @param after the position of the last deck of the previous page, or null.
+     * @param limit the maximum number of decks.
+     * @return the decks with subject, creator and flashcards initialized.
+     */
+    List<Deck> findPageByCreatedBy(User user, DeckSort sort, DeckKeyset after, int limit);
+}
@@ -0,0 +1,101 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Hibernate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deck loaders of {@link DeckRepository} that fetch in two phases: deck headers
+ * with their to-one associations first, then flashcards in batched IN queries
+ * sized by {@code hibernate.default_batch_fetch_size}. Joining the collection
+ * instead would repeat every deck column once per card.
+ * <p>
+ * Pages are selected with a row value comparison on (sort key, id) so a deep
+ * page seeks into the matching index instead of skipping the rows before it.
+ */
+class DeckRepositoryImpl implements DeckRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The creator's stats are joined because an inverse one-to-one cannot be
+    // lazy; left out, they would be selected once per deck
+    private static final String DECK_HEADERS = "SELECT d FROM Deck d JOIN FETCH d.subject "
+            + "JOIN FETCH d.createdBy u LEFT JOIN FETCH u.userStats ";
+
+    @Override
+    public Optional<Deck> findByIdWithDetails(Long id) {
+        List<Deck> decks = entityManager.createQuery(DECK_HEADERS + "WHERE d.id = :id", Deck.class)
+                .setParameter("id", id)
+                .getResultList();
+        return withFlashCards(decks).stream().findFirst();
+    }
+
+    @Override
+    public List<Deck> findByIsPublicTrue() {
+        return withFlashCards(entityManager.createQuery(DECK_HEADERS + "WHERE d.isPublic = true", Deck.class)
+                .getResultList());
+    }
+
+    @Override
+    public List<Deck> findBySubjectIdAndIsPublicTrue(Long subjectId) {
+        return withFlashCards(entityManager.createQuery(
+                DECK_HEADERS + "WHERE d.subject.id = :subjectId AND d.isPublic = true", Deck.class)
+                .setParameter("subjectId", subjectId)
+                .getResultList());
+    }
+
+    @Override
+    public List<Deck> findPublicPage(Long subjectId, DeckSort sort, DeckKeyset after, int limit) {
+        if (subjectId == null) {
+            return findPage("d.isPublic = true", Map.of(), sort, after, limit);
+        }
+        return findPage("d.isPublic = true AND d.subject.id = :subjectId", Map.of("subjectId", subjectId),
+                sort, after, limit);
+    }
+
+    @Override
+    public List<Deck> findPageByCreatedBy(User user, DeckSort sort, DeckKeyset after, int limit) {
+        return findPage("d.createdBy = :user", Map.of("user", user), sort, after, limit);
+    }
+
+    private List<Deck> findPage(String filter, Map<String, Object> parameters, DeckSort sort, DeckKeyset after,
+            int limit) {
+        String key = "d." + sort.getProperty();
+        String direction = sort.isAscending() ? "ASC" : "DESC";
+
+        StringBuilder jpql = new StringBuilder(DECK_HEADERS).append("WHERE ").append(filter);
+        if (after != null) {
+            jpql.append(" AND (").append(key).append(", d.id) ")
+                    .append(sort.isAscending() ? ">" : "<")
+                    .append(" (:afterValue, :afterId)");
+        }
+        jpql.append(" ORDER BY ").append(key).append(' ').append(direction)
+                .append(", d.id ").append(direction);
+
+        TypedQuery<Deck> query = entityManager.createQuery(jpql.toString(), Deck.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("afterValue", after.value());
+            query.setParameter("afterId", after.id());
+        }
+        return withFlashCards(query.getResultList());
+    }
+
+    /**
+     * Initializes the flashcards of the given decks. The first uninitialized
+     * collection pulls in those of other loaded decks up to the batch size.
+     */
+    private List<Deck> withFlashCards(List<Deck> decks) {
+        decks.forEach(deck -> Hibernate.initialize(deck.getFlashCards()));
+        return decks;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fluentooapp.fluentoo.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Orders supported by keyset paginated deck listings. Every order is broken by
+ * the deck id in the same direction so each position is unique.
+ */
+public enum DeckSort {
+    LAUNCH_COUNT("launchCount", false),
+    CREATED_AT("createdAt", false),
+    NAME("name", true);
+
+    private final String property;
+    private final boolean ascending;
+
+    DeckSort(String property, boolean ascending) {
+        this.property = property;
+        this.ascending = ascending;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public static Optional<DeckSort> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.property.equals(property))
+                .findFirst();
+    }
+}
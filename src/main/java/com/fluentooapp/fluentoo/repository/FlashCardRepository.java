@@ -1,19 +1,68 @@
 package com.fluentooapp.fluentoo.repository;
 
+import com.fluentooapp.fluentoo.dto.DeckDueCount;
+import com.fluentooapp.fluentoo.dto.DueCardDto;
+import com.fluentooapp.fluentoo.dto.MatchingPairDTO;
 import com.fluentooapp.fluentoo.entity.FlashCard;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FlashCardRepository extends JpaRepository<FlashCard, Long> {
-    @Query("SELECT f FROM FlashCard f LEFT JOIN FETCH f.deck WHERE f.deck.id = :deckId")
+    @Query("SELECT f FROM FlashCard f LEFT JOIN FETCH f.deck WHERE f.deck.id = :deckId ORDER BY f.id")
     List<FlashCard> findByDeckId(@Param("deckId") Long deckId);
 
-    @Query("SELECT f FROM FlashCard f WHERE f.revisionTime <= :revisionTime")
-    List<FlashCard> findByRevisionTime(@Param("revisionTime") Date revisionTime);
+    @Query("SELECT f.answer FROM FlashCard f WHERE f.id = :id")
+    Optional<String> findAnswerById(@Param("id") Long id);
+
+    @Query("SELECT f.id FROM FlashCard f WHERE f.deck.id = :deckId ORDER BY f.id")
+    List<Long> findIdsByDeckId(@Param("deckId") Long deckId);
+
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.MatchingPairDTO(f.id, f.question, f.answer, false) "
+            + "FROM FlashCard f WHERE f.id IN :ids")
+    List<MatchingPairDTO> findPairsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Due-card queries find the deck's cards on idx_flashcard_deck and probe the
+    // user's schedule by primary key.
+    // Cards without a schedule are due; due ids are sorted by the user's due time.
+
+    @Query("SELECT f.id FROM FlashCard f LEFT JOIN UserCardState s ON s.id.cardId = f.id AND s.id.userId = :userId "
+            + "WHERE f.deck.id = :deckId AND (s.dueAt IS NULL OR s.dueAt <= :dueBy) "
+            + "ORDER BY s.dueAt ASC NULLS LAST, f.id")
+    List<Long> findDueIdsByDeckId(@Param("deckId") Long deckId, @Param("userId") Long userId,
+            @Param("dueBy") LocalDateTime dueBy, Limit limit);
+
+    @Query("SELECT COUNT(f) FROM FlashCard f LEFT JOIN UserCardState s ON s.id.cardId = f.id AND s.id.userId = :userId "
+            + "WHERE f.deck.id = :deckId AND (s.dueAt IS NULL OR s.dueAt <= :dueBy)")
+    long countDueByDeckId(@Param("deckId") Long deckId, @Param("userId") Long userId,
+            @Param("dueBy") LocalDateTime dueBy);
+
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DeckDueCount(d.id, COUNT(f)) FROM FlashCard f JOIN f.deck d "
+            + "LEFT JOIN UserCardState s ON s.id.cardId = f.id AND s.id.userId = :userId "
+            + "WHERE d.id IN :deckIds AND (s.dueAt IS NULL OR s.dueAt <= :dueBy) "
+            + "AND (d.isPublic = true OR d.createdBy.id = :userId) GROUP BY d.id")
+    List<DeckDueCount> countDueByDeckIds(@Param("deckIds") Collection<Long> deckIds,
+            @Param("userId") Long userId, @Param("dueBy") LocalDateTime dueBy);
+
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DeckDueCount(d.id, COUNT(f)) FROM FlashCard f JOIN f.deck d "
+            + "LEFT JOIN UserCardState s ON s.id.cardId = f.id AND s.id.userId = :userId "
+            + "WHERE d.createdBy.id = :userId AND (s.dueAt IS NULL OR s.dueAt <= :dueBy) GROUP BY d.id")
+    List<DeckDueCount> countDueByCreatedBy(@Param("userId") Long userId, @Param("dueBy") LocalDateTime dueBy);
+
+    // The cards counted as due by countDueByCreatedBy that the user never answered, due since creation
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DueCardDto(f.id, d.id, f.question, f.answer, 1, f.createdAt) "
+            + "FROM FlashCard f JOIN f.deck d "
+            + "LEFT JOIN UserCardState s ON s.id.cardId = f.id AND s.id.userId = :userId "
+            + "WHERE d.createdBy.id = :userId AND s.dueAt IS NULL AND f.createdAt <= :dueBy "
+            + "ORDER BY f.createdAt, f.id")
+    List<DueCardDto> findUnscheduledByCreatedBy(@Param("userId") Long userId, @Param("dueBy") LocalDateTime dueBy,
+            Limit limit);
 }
@@ -1,14 +1,23 @@
 package com.fluentooapp.fluentoo.repository;
 
+import com.fluentooapp.fluentoo.dto.MatchingResult;
 import com.fluentooapp.fluentoo.entity.MatchingGame;
 import com.fluentooapp.fluentoo.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface MatchingGameRepository extends JpaRepository<MatchingGame, Long> {
@@ -16,9 +25,31 @@ public interface MatchingGameRepository extends JpaRepository<MatchingGame, Long
     @Query("DELETE FROM MatchingGame mg WHERE mg.deck.id = :deckId")
     void deleteByDeckId(Long deckId);
 
+    // Matches no row once the game is completed, so a game is only completed once
+    @Modifying
+    @Query("UPDATE MatchingGame mg SET mg.completionTimeInSeconds = :completionTime, "
+            + "mg.totalAttempts = :totalAttempts WHERE mg.id = :id AND mg.completionTimeInSeconds IS NULL")
+    int complete(@Param("id") Long id, @Param("completionTime") Long completionTime,
+            @Param("totalAttempts") int totalAttempts);
+
+    // Loads what a game in play reads outside a transaction; the player's stats are joined because an
+    // inverse one-to-one cannot be lazy
+    @Query("SELECT mg FROM MatchingGame mg JOIN FETCH mg.deck d JOIN FETCH d.subject "
+            + "JOIN FETCH mg.user u LEFT JOIN FETCH u.userStats WHERE mg.id = :id")
+    Optional<MatchingGame> findWithDetailsById(@Param("id") Long id);
+
     List<MatchingGame> findTop10ByDeckIdAndUserOrderByCompletionTimeInSecondsAsc(Long deckId, User user);
 
     List<MatchingGame> findTop10ByUserOrderByCreatedAtDesc(User user);
 
     List<MatchingGame> findByUserAndCreatedAtBetween(User user, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.MatchingResult(mg.id, u.id, u.firstName, u.lastName, "
+            + "d.id, d.subject.id, d.isPublic, mg.completionTimeInSeconds, mg.totalAttempts, mg.createdAt) "
+            + "FROM MatchingGame mg JOIN mg.user u JOIN mg.deck d WHERE mg.completionTimeInSeconds IS NOT NULL")
+    Stream<MatchingResult> streamCompleted();
+}
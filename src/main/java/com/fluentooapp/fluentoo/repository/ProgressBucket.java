@@ -0,0 +1,30 @@
+package com.fluentooapp.fluentoo.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Periods progress data can be aggregated by. Weeks start on Monday.
+ */
+public enum ProgressBucket {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String unit;
+
+    ProgressBucket(String unit) {
+        this.unit = unit;
+    }
+
+    // HQL temporal unit; never taken from user input
+    public String getUnit() {
+        return unit;
+    }
+
+    public static Optional<ProgressBucket> fromUnit(String unit) {
+        return Arrays.stream(values())
+                .filter(bucket -> bucket.unit.equalsIgnoreCase(unit))
+                .findFirst();
+    }
+}
@@ -1,7 +1,9 @@
 package com.fluentooapp.fluentoo.repository;
 
+import com.fluentooapp.fluentoo.dto.RecentRevisionDto;
 import com.fluentooapp.fluentoo.entity.Revision;
 import com.fluentooapp.fluentoo.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
@@ -14,13 +16,20 @@ import java.util.Optional;
 import java.time.LocalDateTime;
 
 @Repository
-public interface RevisionRepository extends JpaRepository<Revision, Long> {
+public interface RevisionRepository extends JpaRepository<Revision, Long>, RevisionRepositoryCustom {
         @EntityGraph(attributePaths = { "user", "deck" })
         Optional<Revision> findById(Long id);
 
         @EntityGraph(attributePaths = { "user", "deck" })
         List<Revision> findByUser(User user);
 
+        // Backward scan of idx_revision_user_created
+        @Query("SELECT new com.fluentooapp.fluentoo.dto.RecentRevisionDto(r.id, d.id, d.name, r.mode, "
+                        + "r.totalFlashcards, r.correctFlashcards, CASE WHEN r.totalFlashcards > 0 "
+                        + "THEN r.correctFlashcards * 100.0 / r.totalFlashcards ELSE 0.0 END, r.createdAt) "
+                        + "FROM Revision r JOIN r.deck d WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
+        List<RecentRevisionDto> findRecentByUserId(@Param("userId") Long userId, Limit limit);
+
         @Query("SELECT r FROM Revision r WHERE r.user = :user AND r.createdAt BETWEEN :startDate AND :endDate")
         List<Revision> findByUserAndCreatedAtBetween(@Param("user") User user,
                         @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
@@ -0,0 +1,22 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.dto.ProgressData;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface RevisionRepositoryCustom {
+
+    /**
+     * Streams the progress of a user, one row per revision or per period. Rows
+     * are aggregated by the database and read through a cursor, so the caller
+     * must consume and close the stream inside a transaction.
+     *
+     * @param userId the ID of the user.
+     * @param from   the inclusive start of the range.
+     * @param to     the exclusive end of the range.
+     * @param bucket the period to aggregate by, or null for one row per revision.
+     * @return the progress rows in chronological order.
+     */
+    Stream<ProgressData> streamProgress(Long userId, LocalDateTime from, LocalDateTime to, ProgressBucket bucket);
+}
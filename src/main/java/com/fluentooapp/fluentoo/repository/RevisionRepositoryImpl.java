@@ -0,0 +1,49 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.dto.ProgressData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Progress queries of {@link RevisionRepository} that project straight into
+ * {@link ProgressData}, so no Revision entity, user or deck is loaded.
+ */
+class RevisionRepositoryImpl implements RevisionRepositoryCustom {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ProgressData> streamProgress(Long userId, LocalDateTime from, LocalDateTime to,
+            ProgressBucket bucket) {
+        String query;
+        if (bucket == null) {
+            query = "SELECT new com.fluentooapp.fluentoo.dto.ProgressData(r.createdAt, "
+                    + "CASE WHEN r.totalFlashcards > 0 THEN r.correctFlashcards * 100.0 / r.totalFlashcards "
+                    + "ELSE 0.0 END, r.totalFlashcards, r.correctFlashcards) "
+                    + "FROM Revision r WHERE r.user.id = :userId AND r.createdAt >= :from AND r.createdAt < :to "
+                    + "ORDER BY r.createdAt";
+        } else {
+            String period = "trunc(r.createdAt, " + bucket.getUnit() + ")";
+            query = "SELECT new com.fluentooapp.fluentoo.dto.ProgressData(" + period + ", "
+                    + "CASE WHEN SUM(r.totalFlashcards) > 0 "
+                    + "THEN SUM(r.correctFlashcards) * 100.0 / SUM(r.totalFlashcards) ELSE 0.0 END, "
+                    + "CAST(SUM(r.totalFlashcards) AS Integer), CAST(SUM(r.correctFlashcards) AS Integer)) "
+                    + "FROM Revision r WHERE r.user.id = :userId AND r.createdAt >= :from AND r.createdAt < :to "
+                    + "GROUP BY " + period + " ORDER BY " + period;
+        }
+        return entityManager.createQuery(query, ProgressData.class)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
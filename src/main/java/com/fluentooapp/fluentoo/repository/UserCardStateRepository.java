@@ -0,0 +1,25 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.dto.DueCardDto;
+import com.fluentooapp.fluentoo.entity.UserCardState;
+import com.fluentooapp.fluentoo.entity.UserCardStateId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserCardStateRepository extends JpaRepository<UserCardState, UserCardStateId> {
+
+    // Range scan on idx_user_card_state_due, then a primary key probe per card
+    @Query("SELECT new com.fluentooapp.fluentoo.dto.DueCardDto(f.id, d.id, f.question, f.answer, s.envelope, s.dueAt) "
+            + "FROM UserCardState s JOIN FlashCard f ON f.id = s.id.cardId JOIN f.deck d "
+            + "WHERE s.id.userId = :userId AND s.dueAt <= :dueBy "
+            + "AND (d.isPublic = true OR d.createdBy.id = :userId) "
+            + "ORDER BY s.dueAt")
+    List<DueCardDto> findNextDue(@Param("userId") Long userId, @Param("dueBy") LocalDateTime dueBy, Limit limit);
+}
@@ -0,0 +1,31 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.entity.UserDailyActivity;
+import com.fluentooapp.fluentoo.entity.UserDailyActivityId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyActivityRepository extends JpaRepository<UserDailyActivity, UserDailyActivityId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_activity (user_id, day, cards, points, games) "
+            + "VALUES (:userId, :day, :cards, :points, :games) "
+            + "ON CONFLICT (user_id, day) DO UPDATE SET cards = user_daily_activity.cards + EXCLUDED.cards, "
+            + "points = user_daily_activity.points + EXCLUDED.points, "
+            + "games = user_daily_activity.games + EXCLUDED.games", nativeQuery = true)
+    void addActivity(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("cards") int cards,
+            @Param("points") int points, @Param("games") int games);
+
+    // Primary key range scan
+    @Query("SELECT a FROM UserDailyActivity a WHERE a.id.userId = :userId AND a.id.day BETWEEN :from AND :to "
+            + "ORDER BY a.id.day")
+    List<UserDailyActivity> findByUserIdAndDayBetween(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
@@ -3,9 +3,12 @@ package com.fluentooapp.fluentoo.repository;
 import com.fluentooapp.fluentoo.entity.User;
 import com.fluentooapp.fluentoo.entity.UserStats;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +17,20 @@ public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
 
     @Query("SELECT COUNT(DISTINCT r.user) FROM Revision r WHERE r.createdAt IS NOT NULL")
     Long countActiveUsers();
-}
\ No newline at end of file
+
+    // The streak moves the way UserStatsServiceImpl.updateStudyStreak moves it, from the last update
+    @Modifying
+    @Query("UPDATE UserStats s SET s.studyStreak = CASE WHEN s.lastUpdated >= :today THEN s.studyStreak "
+            + "WHEN s.lastUpdated >= :yesterday THEN s.studyStreak + 1 ELSE 1 END, "
+            + "s.pointsEarned = s.pointsEarned + :points, "
+            + "s.cardsReviewed = s.cardsReviewed + :matchesFound, "
+            + "s.matchingGamesCompleted = s.matchingGamesCompleted + 1, "
+            + "s.matchingGamePoints = s.matchingGamePoints + :points, "
+            + "s.totalMatchesFound = s.totalMatchesFound + :matchesFound, "
+            + "s.totalMatchingAttempts = s.totalMatchingAttempts + :attempts, "
+            + "s.lastUpdated = :now WHERE s.user.id = :userId")
+    int addMatchingGame(@Param("userId") Long userId, @Param("points") int points,
+            @Param("matchesFound") int matchesFound, @Param("attempts") int attempts,
+            @Param("now") LocalDateTime now, @Param("today") LocalDateTime today,
+            @Param("yesterday") LocalDateTime yesterday);
+}
@@ -0,0 +1,35 @@
+package com.fluentooapp.fluentoo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Lightweight, immutable principal of an authenticated request. It is built
+ * from verified JWT claims when {@code jwt.claims-principal.enabled} is set, so
+ * no user row is loaded to authenticate a request, and is otherwise taken from
+ * {@link UserPrincipalCache}.
+ *
+ * @param userId the ID of the user.
+ * @param email  the email of the user.
+ */
+public record ClaimsPrincipal(Long userId, String email) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("USER"));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fluentooapp.fluentoo.security;
+
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the current user from the principal placed in the SecurityContext
+ * by {@link JwtRequestFilter}. A {@link ClaimsPrincipal} resolves to a
+ * reference by id, which only loads when a non-id attribute is read, and so
+ * needs an open session for it. Callers reading more than the id use
+ * {@link #loadCurrentUser()}.
+ */
+@Component
+public class CurrentUserProvider {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserProvider(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns the authenticated user. Only {@link User#getId()} is safe to read
+     * on the result: it may be an uninitialized reference.
+     *
+     * @return the current user.
+     * @throws ResourceNotFoundException if the user no longer exists.
+     */
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        if (authentication.getPrincipal() instanceof ClaimsPrincipal principal) {
+            return userRepository.getReferenceById(principal.userId());
+        }
+        return findByEmail(authentication.getName());
+    }
+
+    /**
+     * Returns the authenticated user with all its attributes loaded, usable
+     * outside a transaction.
+     *
+     * @return the current user.
+     * @throws ResourceNotFoundException if the user no longer exists.
+     */
+    public User loadCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        if (authentication.getPrincipal() instanceof ClaimsPrincipal principal) {
+            return userRepository.findById(principal.userId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.userId()));
+        }
+        return findByEmail(authentication.getName());
+    }
+
+    /**
+     * Returns the user with the given email, reusing the authenticated principal
+     * when it matches.
+     *
+     * @param email the email of the user.
+     * @return the user.
+     * @throws ResourceNotFoundException if the user is not found.
+     */
+    public User getUser(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user
+                && user.getEmail().equals(email)) {
+            return user;
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof ClaimsPrincipal principal
+                && principal.email().equals(email)) {
+            return userRepository.getReferenceById(principal.userId());
+        }
+        return findByEmail(email);
+    }
+
+    private User findByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+    }
+}
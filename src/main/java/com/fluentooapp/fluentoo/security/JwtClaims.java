@@ -0,0 +1,18 @@
+package com.fluentooapp.fluentoo.security;
+
+import java.util.Date;
+
+/**
+ * Verified claims of a JWT issued by {@link JwtUtil}.
+ *
+ * @param subject      the email of the user.
+ * @param userId       the ID of the user, or null for tokens without an id claim.
+ * @param tokenVersion the token version of the user when the token was issued.
+ * @param expiration   the expiration date of the token.
+ */
+public record JwtClaims(String subject, Long userId, int tokenVersion, Date expiration) {
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
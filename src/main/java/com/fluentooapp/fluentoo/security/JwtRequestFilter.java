@@ -3,8 +3,10 @@ package com.fluentooapp.fluentoo.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -28,6 +30,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Value("${jwt.claims-principal.enabled:false}")
+    private boolean claimsPrincipalEnabled;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -39,36 +50,34 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             logger.info("Processing request to: {}", request.getRequestURI());
             logger.debug("Authorization header: {}", authorizationHeader);
 
-            String username = null;
-            String jwt = null;
+            JwtClaims claims = null;
 
             if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-                jwt = authorizationHeader.substring(7);
+                String jwt = authorizationHeader.substring(7);
                 logger.debug("JWT token found");
-                try {
-                    username = jwtUtil.extractUsername(jwt);
-                    logger.info("Extracted username from token: {}", username);
-                } catch (Exception e) {
-                    logger.error("Error extracting username from token", e);
+                claims = jwtUtil.verify(jwt);
+                if (claims == null) {
+                    logger.warn("JWT token validation failed");
+                } else {
+                    logger.info("Extracted username from token: {}", claims.subject());
                 }
             } else {
                 logger.debug("No JWT token found in request");
             }
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                logger.debug("Loading user details for username: {}", username);
-                User user = userRepository.findByEmail(username).orElse(null);
-                logger.info("User details loaded successfully for: {}", username);
+            if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails principal = claimsPrincipalEnabled && claims.userId() != null
+                        ? loadClaimsPrincipal(claims)
+                        : loadUserPrincipal(claims);
 
-                if (user != null && jwtUtil.validateToken(jwt, username)) {
-                    logger.debug("JWT token is valid");
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            user, null, user.getAuthorities());
+                            principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("Authentication set in SecurityContext for user: {}", username);
+                    logger.info("Authentication set in SecurityContext for user: {}", claims.subject());
                 } else {
-                    logger.warn("JWT token validation failed for user: {}", username);
+                    logger.warn("JWT token rejected for user: {}", claims.subject());
                 }
             }
         } catch (Exception e) {
@@ -77,4 +86,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails loadClaimsPrincipal(JwtClaims claims) {
+        if (!tokenVersionCache.isCurrent(claims.userId(), claims.tokenVersion())) {
+            logger.warn("JWT token has been revoked for user: {}", claims.subject());
+            return null;
+        }
+        return new ClaimsPrincipal(claims.userId(), claims.subject());
+    }
+
+    private UserDetails loadUserPrincipal(JwtClaims claims) {
+        String username = claims.subject();
+        UserPrincipalCache.CachedPrincipal cached = userPrincipalCache.get(username);
+        if (cached == null) {
+            logger.debug("Loading user details for username: {}", username);
+            User user = userRepository.findByEmail(username).orElse(null);
+            if (user == null) {
+                logger.warn("No user found for token subject: {}", username);
+                return null;
+            }
+            cached = userPrincipalCache.put(user);
+            logger.info("User details loaded successfully for: {}", username);
+        }
+        if (cached.tokenVersion() != claims.tokenVersion()) {
+            logger.warn("JWT token has been revoked for user: {}", username);
+            return null;
+        }
+        return cached.principal();
+    }
+}
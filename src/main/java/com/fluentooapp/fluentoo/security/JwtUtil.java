@@ -1,10 +1,13 @@
 package com.fluentooapp.fluentoo.security;
 
 import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.util.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -13,7 +16,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
@@ -23,15 +25,32 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // Tokens whose signature has already been checked, so hot tokens skip the
+    // HMAC until they expire. Keyed by the full token: a signature alone could
+    // be replayed with a different payload.
+    private BoundedCache<String, JwtClaims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = new BoundedCache<>(verifiedCacheMaxSize);
     }
 
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("id", user.getId());
         claims.put("email", user.getEmail());
+        claims.put("ver", user.getTokenVersion());
         return createToken(claims, user.getEmail());
     }
 
@@ -41,45 +60,38 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid JWT token: " + e.getMessage());
+    /**
+     * Verifies the token signature and expiration, parsing it at most once.
+     *
+     * @param token the JWT.
+     * @return the verified claims, or null if the token is invalid or expired.
+     */
+    public JwtClaims verify(String token) {
+        // Cached until the token expires, after which the parser rejects it
+        JwtClaims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
         }
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
 
-    public Boolean validateToken(String token, String userEmail) {
+        Claims claims;
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userEmail) && !isTokenExpired(token));
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
-            return false;
+            return null;
         }
+
+        Object id = claims.get("id");
+        Object version = claims.get("ver");
+        JwtClaims verified = new JwtClaims(
+                claims.getSubject(),
+                id instanceof Number number ? number.longValue() : null,
+                version instanceof Number number ? number.intValue() : 0,
+                claims.getExpiration());
+        verifiedTokens.put(token, verified, verified.expiration().getTime());
+        return verified;
     }
-}
\ No newline at end of file
+}
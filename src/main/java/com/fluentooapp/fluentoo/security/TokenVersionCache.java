@@ -0,0 +1,50 @@
+package com.fluentooapp.fluentoo.security;
+
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicting cache of each user's current token version. Tokens
+ * carrying an older version have been revoked.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+
+    private final BoundedCache<Long, Integer> cache;
+
+    public TokenVersionCache(UserRepository userRepository,
+            @Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+            @Value("${jwt.principal-cache.ttl:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Checks whether a token version is still the current one for the user.
+     *
+     * @param userId       the ID of the user.
+     * @param tokenVersion the version carried by the token.
+     * @return true if the token has not been revoked and the user still exists.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer version = cache.get(userId);
+        if (version == null) {
+            version = userRepository.findTokenVersionById(userId).orElse(null);
+            if (version == null) {
+                return false;
+            }
+            cache.put(userId, version);
+        }
+        return version == tokenVersion;
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            cache.remove(userId);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fluentooapp.fluentoo.security;
+
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by email (the
+ * JWT subject). Lets {@link JwtRequestFilter} authenticate a request without a
+ * database round trip. Only immutable {@link ClaimsPrincipal}s and token
+ * versions are cached, never {@link User} entities, so request threads share
+ * no managed state; the entity is loaded by {@link CurrentUserProvider} when a
+ * request needs it.
+ */
+@Component
+public class UserPrincipalCache {
+
+    /**
+     * A cached principal.
+     *
+     * @param principal    the principal of the user.
+     * @param tokenVersion the token version of the user when it was cached.
+     */
+    public record CachedPrincipal(ClaimsPrincipal principal, int tokenVersion) {
+    }
+
+    private final BoundedCache<String, CachedPrincipal> cache;
+
+    public UserPrincipalCache(@Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+            @Value("${jwt.principal-cache.ttl:300}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Returns the cached principal for the given email, or null when absent or
+     * expired.
+     *
+     * @param email the email of the user.
+     * @return the cached principal, or null.
+     */
+    public CachedPrincipal get(String email) {
+        return cache.get(email);
+    }
+
+    /**
+     * Caches the principal of a user loaded from the database.
+     *
+     * @param user the user.
+     * @return the cached principal.
+     */
+    public CachedPrincipal put(User user) {
+        CachedPrincipal principal = new CachedPrincipal(new ClaimsPrincipal(user.getId(), user.getEmail()),
+                user.getTokenVersion());
+        cache.put(user.getEmail(), principal);
+        return principal;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.remove(email);
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
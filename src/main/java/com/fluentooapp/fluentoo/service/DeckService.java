@@ -1,16 +1,30 @@
 package com.fluentooapp.fluentoo.service;
 
 import com.fluentooapp.fluentoo.dto.DeckDto;
+import com.fluentooapp.fluentoo.dto.DeckPage;
+import com.fluentooapp.fluentoo.dto.DeckSummaryDto;
 import com.fluentooapp.fluentoo.entity.Deck;
 import java.util.List;
 
 public interface DeckService {
     List<Deck> getMyDecks();
 
+    DeckPage getMyDeckPage(String sort, String cursor, Integer size);
+
     List<Deck> getPublicDecks();
 
     List<Deck> getPublicDecksBySubject(Long subjectId);
 
+    byte[] getPublicDecksJson();
+
+    DeckPage getPublicDeckPage(Long subjectId, String sort, String cursor, Integer size);
+
+    byte[] getPublicDecksBySubjectJson(Long subjectId);
+
+    List<DeckSummaryDto> getPublicDeckSummaries(Long subjectId);
+
+    byte[] getPublicDeckSummariesJson(Long subjectId);
+
     Deck createDeck(DeckDto deckDto);
 
     Deck updateDeck(Long id, DeckDto deckDto);
@@ -1,6 +1,11 @@
 package com.fluentooapp.fluentoo.service;
 
+import com.fluentooapp.fluentoo.dto.LeaderboardDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardMetric;
+import com.fluentooapp.fluentoo.dto.LeaderboardScope;
 import com.fluentooapp.fluentoo.dto.MatchingGameDTO;
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
 import java.util.List;
 
 public interface MatchingGameService {
@@ -8,9 +13,32 @@ public interface MatchingGameService {
 
     MatchingGameDTO getGame(Long gameId);
 
+    /**
+     * Plays a move of a matching game: checks whether the chosen question and
+     * answer form a pair and counts the attempt. The move matching the last pair
+     * completes the game, with its time measured by the server.
+     *
+     * @param gameId the ID of the game.
+     * @param move   the positions of the chosen question and answer tiles.
+     * @return the outcome of the move.
+     */
+    MatchingMoveResponse submitMove(Long gameId, MatchingMoveRequest move);
+
     MatchingGameDTO completeGame(Long gameId);
 
     List<MatchingGameDTO> getUserBestTimes(Long deckId);
 
     List<MatchingGameDTO> getRecentGames();
+
+    /**
+     * Returns the top of a matching game leaderboard and the position of the
+     * current user on it.
+     *
+     * @param scope   the games ranked.
+     * @param scopeId the ID of the deck or subject, ignored for the global scope.
+     * @param metric  what players are ranked by.
+     * @param limit   the number of top entries, capped by the configured maximum.
+     * @return the leaderboard.
+     */
+    LeaderboardDto getLeaderboard(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric, Integer limit);
 }
\ No newline at end of file
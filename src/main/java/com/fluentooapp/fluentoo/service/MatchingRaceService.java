@@ -0,0 +1,52 @@
+package com.fluentooapp.fluentoo.service;
+
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingRaceDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Matching races: players in a room race on the same board, following each
+ * other's progress live. Rooms are held in memory by the node that opened them.
+ */
+public interface MatchingRaceService {
+
+    /**
+     * Opens a race room on a deck, with the current user as its host and first
+     * player.
+     *
+     * @param deckId the ID of the deck.
+     * @return the room.
+     */
+    CompletableFuture<MatchingRaceDto> createRoom(Long deckId);
+
+    CompletableFuture<MatchingRaceDto> joinRoom(String roomId);
+
+    /**
+     * Starts the race. Only the host may start it.
+     */
+    CompletableFuture<MatchingRaceDto> startRace(String roomId);
+
+    /**
+     * Plays a move of the current user. The clock of the race is kept by the
+     * server, and the move matching the last pair finishes the race for the
+     * player.
+     *
+     * @param roomId the ID of the room.
+     * @param move   the positions of the chosen question and answer tiles.
+     * @return the outcome of the move.
+     */
+    CompletableFuture<MatchingMoveResponse> submitMove(String roomId, MatchingMoveRequest move);
+
+    CompletableFuture<MatchingRaceDto> leaveRoom(String roomId);
+
+    CompletableFuture<MatchingRaceDto> getRoom(String roomId);
+
+    /**
+     * Streams the events of a room to the current user, starting with a
+     * snapshot of the room.
+     */
+    SseEmitter subscribe(String roomId);
+}
@@ -1,11 +1,21 @@
 package com.fluentooapp.fluentoo.service;
 
+import com.fluentooapp.fluentoo.dto.AnswerBatchResponse;
 import com.fluentooapp.fluentoo.dto.AnswerRequest;
+import com.fluentooapp.fluentoo.dto.AnswerResponse;
+import com.fluentooapp.fluentoo.dto.DashboardDto;
+import com.fluentooapp.fluentoo.dto.DeckDueCount;
+import com.fluentooapp.fluentoo.dto.DueCardDto;
 import com.fluentooapp.fluentoo.dto.RevisionResponse;
 import com.fluentooapp.fluentoo.dto.ProgressData;
+import com.fluentooapp.fluentoo.entity.FlashCard;
 import com.fluentooapp.fluentoo.entity.Revision;
+import com.fluentooapp.fluentoo.entity.RevisionMode;
+import com.fluentooapp.fluentoo.repository.ProgressBucket;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface RevisionService {
     /**
@@ -13,9 +23,10 @@ public interface RevisionService {
      *
      * @param deckId    the ID of the deck to revise
      * @param userEmail the email of the user
+     * @param mode      whether to revise every card or only the due ones
      * @return the created revision
      */
-    Revision newDeckRevision(Long deckId, String userEmail);
+    Revision newDeckRevision(Long deckId, String userEmail, RevisionMode mode);
 
     /**
      * Finds a revision by its ID.
@@ -41,12 +52,13 @@ public interface RevisionService {
     RevisionResponse getRevision(Long id);
 
     /**
-     * Gets dashboard data for the given user.
+     * Gets the dashboard of the given user: stats, today's points against the
+     * daily goal and the latest revisions. Cached until the user's stats change.
      *
      * @param userEmail the email of the user
-     * @return the dashboard data
+     * @return the dashboard
      */
-    Map<String, Object> getDashboardData(String userEmail);
+    DashboardDto getDashboardData(String userEmail);
 
     /**
      * Finds all revisions for a user and deck.
@@ -58,18 +70,87 @@ public interface RevisionService {
     List<Revision> findAllByUserAndDeck(String userId, Long deckId);
 
     /**
-     * Submits an answer for a revision.
+     * Submits an answer for a revision. Only the first answer to a card counts.
      *
      * @param id            the ID of the revision
      * @param answerRequest the answer request
-     * @return the updated revision response
+     * @return the updated counters and the next flashcard to show
      */
-    RevisionResponse submitAnswer(Long id, AnswerRequest answerRequest);
+    AnswerResponse submitAnswer(Long id, AnswerRequest answerRequest);
 
     /**
-     * Gets progress data for all revisions.
+     * Gets a version tag of the flashcards of a revision, which changes whenever
+     * the list returned by {@link #getRevisionFlashcards(Long)} may change.
      *
-     * @return list of progress data
+     * @param id the ID of the revision
+     * @return the version tag, usable as an ETag
+     */
+    String getFlashcardsVersion(Long id);
+
+    /**
+     * Gets the flashcards of a revision in study order, answered ones included.
+     *
+     * @param id the ID of the revision
+     * @return the flashcards
+     */
+    List<FlashCard> getRevisionFlashcards(Long id);
+
+    /**
+     * Submits a batch of answers for a revision in one transaction. Answers whose
+     * sequence number was already applied, or to cards already answered, are
+     * skipped, so a batch can be resent.
+     *
+     * @param id      the ID of the revision
+     * @param answers the answers, each with a sequence number
+     * @return the applied counts and updated revision counters
+     */
+    AnswerBatchResponse submitAnswers(Long id, List<AnswerRequest> answers);
+
+    /**
+     * Gets the number of due flashcards per deck.
+     *
+     * @param deckIds the IDs of the decks, or null for the decks of the current user
+     * @return the due counts of decks with at least one due card
+     */
+    List<DeckDueCount> getDueCounts(List<Long> deckIds);
+
+    /**
+     * Gets the next flashcards due for the current user across all decks.
+     *
+     * @param limit the maximum number of flashcards
+     * @return the due flashcards, the most overdue first
+     */
+    List<DueCardDto> getNextDueCards(int limit);
+
+    /**
+     * Ends a revision, writing its per-card results and the card schedules
+     * recorded during it.
+     *
+     * @param id the ID of the revision
+     * @return the revision response
+     */
+    RevisionResponse completeRevision(Long id);
+
+    /**
+     * Gets the progress of the current user, aggregated by the database.
+     *
+     * @param from   the first day, or null for no lower bound
+     * @param to     the last day, or null for today
+     * @param bucket the period to aggregate by, or null for one row per revision
+     * @return the progress rows in chronological order
+     */
+    List<ProgressData> getProgress(LocalDate from, LocalDate to, ProgressBucket bucket);
+
+    /**
+     * Passes the progress of a user to a consumer row by row as the database
+     * returns them, without holding the result in memory.
+     *
+     * @param userId   the ID of the user
+     * @param from     the first day, or null for no lower bound
+     * @param to       the last day, or null for today
+     * @param bucket   the period to aggregate by, or null for one row per revision
+     * @param consumer receives the rows in chronological order
      */
-    List<ProgressData> getProgress();
+    void streamProgress(Long userId, LocalDate from, LocalDate to, ProgressBucket bucket,
+            Consumer<ProgressData> consumer);
 }
@@ -0,0 +1,61 @@
+package com.fluentooapp.fluentoo.service;
+
+import com.fluentooapp.fluentoo.dto.DueCardDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserCardStateService {
+
+    /**
+     * Retrieves the IDs of the flashcards of a deck due for a user, the most
+     * overdue first and never answered cards last.
+     *
+     * @param deckId the ID of the deck.
+     * @param userId the ID of the user.
+     * @param dueBy  the time the due date must not exceed.
+     * @param limit  the maximum number of flashcards.
+     * @return the IDs of the due flashcards.
+     */
+    List<Long> findDueFlashCardIds(Long deckId, Long userId, LocalDateTime dueBy, int limit);
+
+    /**
+     * Counts the flashcards of a deck due for a user.
+     *
+     * @param deckId the ID of the deck.
+     * @param userId the ID of the user.
+     * @param dueBy  the time the due date must not exceed.
+     * @return the number of due flashcards.
+     */
+    long countDueFlashCards(Long deckId, Long userId, LocalDateTime dueBy);
+
+    /**
+     * Moves a flashcard between the envelopes of the revision's user after an
+     * answer. A correct answer promotes a due card one envelope; a wrong answer
+     * sends it back to the first envelope. The schedule is kept in memory and
+     * written once the revision ends.
+     *
+     * @param revisionId the ID of the revision the answer belongs to.
+     * @param userId     the ID of the user.
+     * @param cardId     the ID of the answered flashcard.
+     * @param correct    whether the answer was correct.
+     */
+    void recordAnswer(Long revisionId, Long userId, Long cardId, boolean correct);
+
+    /**
+     * Writes the schedules recorded during a revision.
+     *
+     * @param revisionId the ID of the revision.
+     */
+    void completeRevision(Long revisionId);
+
+    /**
+     * Retrieves the next flashcards due for a user across all decks, including
+     * the never answered cards of the user's own decks, due since their creation.
+     *
+     * @param userId the ID of the user.
+     * @param limit  the maximum number of flashcards.
+     * @return the due flashcards, the most overdue first.
+     */
+    List<DueCardDto> getNextDueCards(Long userId, int limit);
+}
@@ -24,4 +24,6 @@ public interface UserService {
 	boolean existsByEmail(String email);
 
 	void updateDeckStudied(User user);
+
+	void revokeTokens(User user);
 }
@@ -7,6 +7,15 @@ import java.util.Map;
 public interface UserStatsService {
     UserStats getUserStats(User user);
 
+    /**
+     * Returns the user's stats including increments not yet written, without
+     * creating a row for users who have none.
+     *
+     * @param user the user.
+     * @return a detached copy of the stats, or initial values.
+     */
+    UserStats findUserStats(User user);
+
     Map<String, Object> getDashboardStats(User user);
 
     Map<String, Object> getLearningActivity(User user);
@@ -0,0 +1,123 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.util.AnswerMatcher;
+import com.fluentooapp.fluentoo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Grades typed answers against the answer of a flashcard. Both sides are
+ * normalized with {@link AnswerMatcher#normalize}, and a few typos are
+ * tolerated in longer answers. The normalized answer of each card is cached,
+ * so an answer costs one normalization and at most one banded distance check.
+ * Cached answers are dropped once a change of their card commits.
+ */
+@Component
+class AnswerGrader {
+
+    private final FlashCardRepository flashCardRepository;
+
+    private final Set<String> articles;
+
+    private final int maxEdits;
+
+    private final int charsPerEdit;
+
+    private final BoundedCache<Long, String> normalizedAnswers;
+
+    // Bumped by every eviction; answers read before an eviction are not cached after it
+    private final AtomicLong evictions = new AtomicLong();
+
+    AnswerGrader(FlashCardRepository flashCardRepository,
+            @Value("${revision.grading.articles:a,an,the,le,la,les,l,un,une,des}") List<String> articles,
+            @Value("${revision.grading.max-edits:2}") int maxEdits,
+            @Value("${revision.grading.chars-per-edit:5}") int charsPerEdit,
+            @Value("${revision.grading.cache-max-size:50000}") int cacheMaxSize) {
+        this.flashCardRepository = flashCardRepository;
+        this.articles = articles.stream()
+                .map(article -> article.trim().toLowerCase(Locale.ROOT))
+                .filter(article -> !article.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxEdits = maxEdits;
+        this.charsPerEdit = Math.max(1, charsPerEdit);
+        this.normalizedAnswers = new BoundedCache<>(cacheMaxSize);
+    }
+
+    /**
+     * Checks a typed answer. One edit is allowed per {@code chars-per-edit}
+     * characters of the expected answer, up to {@code max-edits}.
+     *
+     * @param cardId the ID of the flashcard.
+     * @param answer the typed answer.
+     * @return whether the answer is correct.
+     * @throws ResourceNotFoundException if the flashcard does not exist.
+     */
+    boolean grade(Long cardId, String answer) {
+        String expected = normalizedAnswers.get(cardId);
+        if (expected == null) {
+            long seen = evictions.get();
+            expected = AnswerMatcher.normalize(flashCardRepository.findAnswerById(cardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("FlashCard", "id", cardId)), articles);
+            cache(cardId, expected, seen);
+        }
+
+        String given = AnswerMatcher.normalize(answer, articles);
+        if (given.isEmpty()) {
+            return false;
+        }
+        if (given.equals(expected)) {
+            return true;
+        }
+        int allowed = Math.min(maxEdits, expected.length() / charsPerEdit);
+        return allowed > 0 && AnswerMatcher.boundedDistance(expected, given, allowed) <= allowed;
+    }
+
+    /**
+     * Caches the answers of the given cards in one query, so grading them reads
+     * no row. Cards already cached or deleted are skipped.
+     *
+     * @param cardIds the IDs of the flashcards.
+     */
+    void preload(Collection<Long> cardIds) {
+        List<Long> missing = cardIds.stream()
+                .filter(cardId -> !normalizedAnswers.containsKey(cardId))
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        long seen = evictions.get();
+        flashCardRepository.findPairsByIdIn(missing).forEach(card -> cache(card.getFlashcardId(),
+                AnswerMatcher.normalize(card.getAnswer(), articles), seen));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onFlashCardChanged(FlashCardChangedEvent event) {
+        evict(event.flashcardId());
+    }
+
+    private void evict(Long cardId) {
+        evictions.incrementAndGet();
+        normalizedAnswers.remove(cardId);
+    }
+
+    // Skipped when an eviction ran since the answer was read, as it may be the old one.
+    // The cache locks on itself, so an eviction cannot remove between the check and the put.
+    private void cache(Long cardId, String expected, long seenEvictions) {
+        synchronized (normalizedAnswers) {
+            if (evictions.get() == seenEvictions) {
+                normalizedAnswers.put(cardId, expected);
+            }
+        }
+    }
+}
@@ -56,6 +56,9 @@ public class AuthServiceImpl implements AuthService {
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
         }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
         return userService.findUserByEmail(authentication.getName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.DashboardDto;
+import com.fluentooapp.fluentoo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of dashboards per user. An entry is dropped when a
+ * {@link UserActivityEvent} of its user is committed, and expires after a TTL
+ * so changes made without an event, like a broken streak, still show up.
+ */
+@Component
+class DashboardCache {
+
+    private final BoundedCache<Long, CachedDashboard> dashboards;
+
+    DashboardCache(@Value("${dashboard.cache.max-size:10000}") int maxSize,
+                   @Value("${dashboard.cache.ttl:60}") long ttlSeconds) {
+        dashboards = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Returns the cached dashboard of a user, loading it on a miss.
+     *
+     * @param userId the ID of the user.
+     * @param loader loads the dashboard.
+     * @return the dashboard.
+     */
+    DashboardDto get(Long userId, Supplier<DashboardDto> loader) {
+        CachedDashboard seen = dashboards.get(userId);
+        if (seen != null && seen.dashboard() != null) {
+            return seen.dashboard();
+        }
+
+        DashboardDto dashboard = loader.get();
+        // Not stored if the user was invalidated meanwhile, which replaced the entry seen
+        CachedDashboard loaded = new CachedDashboard(dashboard);
+        if (seen == null) {
+            dashboards.putIfAbsent(userId, loaded);
+        } else {
+            dashboards.replace(userId, seen, loaded);
+        }
+        return dashboard;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onUserActivity(UserActivityEvent event) {
+        // A fresh tombstone rather than a removal, so a load in progress cannot store stale data.
+        // It never expires, or a load started before it could store its result after.
+        dashboards.put(event.userId(), new CachedDashboard(null), Long.MAX_VALUE);
+    }
+
+    // Compared by identity: equal tombstones must still tell invalidations apart
+    private static final class CachedDashboard {
+        private final DashboardDto dashboard;
+
+        private CachedDashboard(DashboardDto dashboard) {
+            this.dashboard = dashboard;
+        }
+
+        private DashboardDto dashboard() {
+            return dashboard;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
+import com.fluentooapp.fluentoo.repository.DeckKeyset;
+import com.fluentooapp.fluentoo.repository.DeckSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Encodes deck listing positions as opaque cursors: the sort, the deck id and
+ * the persisted sort value, base64url encoded. A cursor is only valid for the
+ * sort it was issued with.
+ */
+final class DeckCursor {
+
+    private DeckCursor() {
+    }
+
+    static String encode(DeckSort sort, Deck deck) {
+        String value = switch (sort) {
+            // The persisted count, not including launches still buffered in memory
+            case LAUNCH_COUNT -> Integer.toString(deck.getLaunchCount() - deck.getUnflushedLaunchCount());
+            case CREATED_AT -> deck.getCreatedAt().toString();
+            case NAME -> deck.getName();
+        };
+        String raw = sort.name() + '\n' + deck.getId() + '\n' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static DeckKeyset decode(DeckSort sort, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new BadRequestException("Cursor does not match sort " + sort.getProperty());
+            }
+            Object value = switch (sort) {
+                case LAUNCH_COUNT -> Integer.valueOf(parts[2]);
+                case CREATED_AT -> LocalDateTime.parse(parts[2]);
+                case NAME -> parts[2];
+            };
+            return new DeckKeyset(value, Long.valueOf(parts[1]));
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+/**
+ * Published when a deck is deleted along with its revisions and matching
+ * games, so views built from them, like the leaderboards, drop them.
+ *
+ * @param deckId the ID of the deck.
+ */
+record DeckDeletedEvent(Long deckId) {
+}
@@ -0,0 +1,100 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Absorbs deck launch increments in memory so popular public decks don't turn
+ * their decks row into a lock hotspot. Accumulated launches are written to
+ * decks.launch_count in one batched statement on a timer and on shutdown.
+ */
+@Component
+class DeckLaunchCounter {
+    private static final Logger logger = LoggerFactory.getLogger(DeckLaunchCounter.class);
+
+    private static final String FLUSH_SQL = "UPDATE decks SET launch_count = launch_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LongAdder> launches = new ConcurrentHashMap<>();
+
+    DeckLaunchCounter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a launch of the deck. Inside a transaction the launch is only
+     * counted once the transaction commits.
+     *
+     * @param deckId the ID of the deck.
+     */
+    void increment(Long deckId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adderFor(deckId).increment();
+                }
+            });
+        } else {
+            adderFor(deckId).increment();
+        }
+    }
+
+    /**
+     * Returns the launches of the deck not yet written to the database.
+     *
+     * @param deckId the ID of the deck.
+     * @return the number of unflushed launches.
+     */
+    int pending(Long deckId) {
+        LongAdder adder = launches.get(deckId);
+        return adder != null ? (int) adder.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${decks.launch-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        launches.forEach((deckId, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                // Subtract what is written rather than reset, so concurrent launches are kept
+                adder.add(-count);
+                batch.add(new Object[] { count, deckId });
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            logger.debug("Flushed launch counts for {} decks", batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to flush launch counts, keeping {} pending decks: {}", batch.size(),
+                    e.getMessage());
+            batch.forEach(row -> adderFor((Long) row[1]).add((Long) row[0]));
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        flush();
+    }
+
+    private LongAdder adderFor(Long deckId) {
+        return launches.computeIfAbsent(deckId, id -> new LongAdder());
+    }
+}
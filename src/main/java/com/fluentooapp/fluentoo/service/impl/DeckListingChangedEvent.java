@@ -0,0 +1,13 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+/**
+ * Published when a deck becomes public or private or moves to another
+ * subject, so views that list its content by visibility or subject, like the
+ * leaderboards, move it.
+ *
+ * @param deckId     the ID of the deck.
+ * @param subjectId  the ID of the subject of the deck.
+ * @param publicDeck whether the deck is public.
+ */
+record DeckListingChangedEvent(Long deckId, Long subjectId, boolean publicDeck) {
+}
@@ -1,21 +1,32 @@
 package com.fluentooapp.fluentoo.service.impl;
 
 import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 import com.fluentooapp.fluentoo.dto.DeckDto;
+import com.fluentooapp.fluentoo.dto.DeckPage;
+import com.fluentooapp.fluentoo.dto.DeckSummaryDto;
 import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.Subject;
 import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.repository.DeckKeyset;
 import com.fluentooapp.fluentoo.repository.DeckRepository;
+import com.fluentooapp.fluentoo.repository.DeckSort;
 import com.fluentooapp.fluentoo.repository.SubjectRepository;
 import com.fluentooapp.fluentoo.repository.UserRepository;
 import com.fluentooapp.fluentoo.repository.UserStatsRepository;
 import com.fluentooapp.fluentoo.repository.RevisionRepository;
 import com.fluentooapp.fluentoo.repository.MatchingGameRepository;
+import com.fluentooapp.fluentoo.security.CurrentUserProvider;
 import com.fluentooapp.fluentoo.service.DeckService;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
 import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -30,31 +41,42 @@ public class DeckServiceImpl implements DeckService {
     private final UserRepository userRepository;
     private final RevisionRepository revisionRepository;
     private final MatchingGameRepository matchingGameRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final DeckLaunchCounter deckLaunchCounter;
+    private final PublicDeckCatalogCache publicDeckCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${decks.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${decks.page.max-size:100}")
+    private int maxPageSize;
 
     public DeckServiceImpl(DeckRepository deckRepository, SubjectRepository subjectRepository,
             UserRepository userRepository, UserStatsRepository userStatsRepository,
             RevisionRepository revisionRepository,
-            MatchingGameRepository matchingGameRepository) {
+            MatchingGameRepository matchingGameRepository,
+            CurrentUserProvider currentUserProvider,
+            DeckLaunchCounter deckLaunchCounter,
+            PublicDeckCatalogCache publicDeckCatalogCache,
+            ApplicationEventPublisher eventPublisher) {
         this.deckRepository = deckRepository;
         this.subjectRepository = subjectRepository;
         this.userRepository = userRepository;
         this.revisionRepository = revisionRepository;
         this.matchingGameRepository = matchingGameRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.deckLaunchCounter = deckLaunchCounter;
+        this.publicDeckCatalogCache = publicDeckCatalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Deck> getMyDecks() {
         try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            logger.info("Getting decks for user email: {}", email);
-
-            User currentUser = userRepository.findByEmail(email)
-                    .orElseThrow(() -> {
-                        logger.error("User not found with email: {}", email);
-                        return new ResourceNotFoundException("User", "email", email);
-                    });
-            logger.info("Found user: {}", currentUser.getEmail());
+            User currentUser = currentUserProvider.getCurrentUser();
+            logger.info("Getting decks for user id: {}", currentUser.getId());
 
             List<Deck> decks = deckRepository.findByCreatedBy(currentUser);
             // Initialize the subject for each deck to avoid lazy loading issues
@@ -64,6 +86,7 @@ public class DeckServiceImpl implements DeckService {
                 }
             });
             logger.info("Found {} decks for user", decks.size());
+            applyPendingLaunches(decks);
             return decks;
         } catch (Exception e) {
             logger.error("Error in getMyDecks", e);
@@ -71,6 +94,18 @@ public class DeckServiceImpl implements DeckService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DeckPage getMyDeckPage(String sort, String cursor, Integer size) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        DeckSort deckSort = parseSort(sort);
+        int limit = pageSize(size);
+        logger.info("Getting deck page for user id: {} sorted by {}", currentUser.getId(), deckSort.getProperty());
+        List<Deck> decks = deckRepository.findPageByCreatedBy(currentUser, deckSort,
+                cursor == null ? null : DeckCursor.decode(deckSort, cursor), limit + 1);
+        return toPage(decks, deckSort, limit);
+    }
+
     @Override
     public void linkUserToDeck(String userEmail, Long deckId) {
         try {
@@ -82,7 +117,7 @@ public class DeckServiceImpl implements DeckService {
 
             // Since we removed the user_decks table, we only need to check if the deck is
             // public
-            if (!deck.isPublic() && !deck.getCreatedBy().equals(user)) {
+            if (!deck.isPublic() && !deck.getCreatedBy().getId().equals(user.getId())) {
                 throw new IllegalStateException("Cannot link private deck to user");
             }
             logger.info("Successfully verified deck access");
@@ -115,6 +150,10 @@ public class DeckServiceImpl implements DeckService {
 
             // Finally delete the deck
             deckRepository.delete(deck);
+            eventPublisher.publishEvent(new DeckDeletedEvent(id));
+            if (deck.isPublic()) {
+                publishCatalogChange(deck.getSubject());
+            }
             logger.info("Successfully deleted deck");
         } catch (Exception e) {
             logger.error("Error deleting deck", e);
@@ -128,6 +167,7 @@ public class DeckServiceImpl implements DeckService {
             logger.info("Finding all public decks");
             List<Deck> decks = deckRepository.findByIsPublicTrue();
             logger.info("Found {} public decks", decks.size());
+            applyPendingLaunches(decks);
             return decks;
         } catch (Exception e) {
             logger.error("Error finding public decks", e);
@@ -143,6 +183,7 @@ public class DeckServiceImpl implements DeckService {
             Deck deck = deckRepository.findByIdWithDetails(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", id));
             logger.info("Found deck: {}", deck.getName());
+            deck.setUnflushedLaunchCount(deckLaunchCounter.pending(deck.getId()));
             return deck;
         } catch (Exception e) {
             logger.error("Error finding deck by id", e);
@@ -156,8 +197,13 @@ public class DeckServiceImpl implements DeckService {
             logger.info("Making deck {} public", id);
             Deck deck = deckRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", id));
+            boolean changed = deck.isPublic() != true;
             deck.setPublic(true);
             deckRepository.save(deck);
+            if (changed) {
+                publishCatalogChange(deck.getSubject());
+                publishListingChange(deck);
+            }
             logger.info("Successfully made deck public");
         } catch (Exception e) {
             logger.error("Error making deck public", e);
@@ -171,8 +217,13 @@ public class DeckServiceImpl implements DeckService {
             logger.info("Making deck {} private", id);
             Deck deck = deckRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", id));
+            boolean changed = deck.isPublic() != false;
             deck.setPublic(false);
             deckRepository.save(deck);
+            if (changed) {
+                publishCatalogChange(deck.getSubject());
+                publishListingChange(deck);
+            }
             logger.info("Successfully made deck private");
         } catch (Exception e) {
             logger.error("Error making deck private", e);
@@ -186,6 +237,7 @@ public class DeckServiceImpl implements DeckService {
             logger.info("Getting public decks for subject: {}", subjectId);
             List<Deck> decks = deckRepository.findBySubjectIdAndIsPublicTrue(subjectId);
             logger.info("Found {} public decks for subject", decks.size());
+            applyPendingLaunches(decks);
             return decks;
         } catch (Exception e) {
             logger.error("Error getting public decks by subject", e);
@@ -199,6 +251,8 @@ public class DeckServiceImpl implements DeckService {
             logger.info("Updating deck: {}", id);
             Deck deck = deckRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", id));
+            boolean wasPublic = deck.isPublic();
+            Subject previousSubject = deck.getSubject();
 
             deck.setName(deckDto.getName());
             deck.setDescription(deckDto.getDescription());
@@ -207,6 +261,13 @@ public class DeckServiceImpl implements DeckService {
             deck.setPublic(deckDto.isPublic_());
 
             Deck updatedDeck = deckRepository.save(deck);
+            if (wasPublic || updatedDeck.isPublic()) {
+                publishCatalogChange(previousSubject, updatedDeck.getSubject());
+            }
+            if (wasPublic != updatedDeck.isPublic()
+                    || !previousSubject.getId().equals(updatedDeck.getSubject().getId())) {
+                publishListingChange(updatedDeck);
+            }
             logger.info("Successfully updated deck");
             return updatedDeck;
         } catch (Exception e) {
@@ -220,12 +281,8 @@ public class DeckServiceImpl implements DeckService {
         try {
             logger.info("Creating deck with data: {}", deckDto);
 
-            String currentUserEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            logger.info("Current user email: {}", currentUserEmail);
-
-            User currentUser = userRepository.findByEmail(currentUserEmail)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", "current"));
-            logger.info("Found current user: {}", currentUser.getEmail());
+            User currentUser = currentUserProvider.loadCurrentUser();
+            logger.info("Current user email: {}", currentUser.getEmail());
 
             Deck deck = new Deck();
             deck.setName(deckDto.getName());
@@ -237,6 +294,9 @@ public class DeckServiceImpl implements DeckService {
             deck.setCreatedAt(LocalDateTime.now());
 
             Deck savedDeck = deckRepository.save(deck);
+            if (savedDeck.isPublic()) {
+                publishCatalogChange(savedDeck.getSubject());
+            }
             logger.info("Successfully created deck with id: {}", savedDeck.getId());
             return savedDeck;
         } catch (Exception e) {
@@ -258,6 +318,7 @@ public class DeckServiceImpl implements DeckService {
                 }
             });
             logger.info("Found {} public decks", decks.size());
+            applyPendingLaunches(decks);
             return decks;
         } catch (Exception e) {
             logger.error("Error getting public decks", e);
@@ -265,12 +326,63 @@ public class DeckServiceImpl implements DeckService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DeckPage getPublicDeckPage(Long subjectId, String sort, String cursor, Integer size) {
+        DeckSort deckSort = parseSort(sort);
+        int limit = pageSize(size);
+        logger.info("Getting public deck page for subject: {} sorted by {}", subjectId, deckSort.getProperty());
+        DeckKeyset after = cursor == null ? null : DeckCursor.decode(deckSort, cursor);
+        List<Deck> decks = deckRepository.findPublicPage(subjectId, deckSort, after, limit + 1);
+        return toPage(decks, deckSort, limit);
+    }
+
+    // SUPPORTS so a cache hit does not check out a connection
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public byte[] getPublicDecksJson() {
+        return publicDeckCatalogCache.get(PublicDeckCatalogCache.View.FULL, null, this::getPublicDecks);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public byte[] getPublicDecksBySubjectJson(Long subjectId) {
+        return publicDeckCatalogCache.get(PublicDeckCatalogCache.View.FULL, subjectId,
+                () -> getPublicDecksBySubject(subjectId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeckSummaryDto> getPublicDeckSummaries(Long subjectId) {
+        try {
+            logger.info("Getting public deck summaries for subject: {}", subjectId);
+            List<DeckSummaryDto> summaries = subjectId == null
+                    ? deckRepository.findPublicDeckSummaries()
+                    : deckRepository.findPublicDeckSummariesBySubjectId(subjectId);
+            summaries.forEach(summary -> summary.setLaunchCount(
+                    summary.getLaunchCount() + deckLaunchCounter.pending(summary.getId())));
+            logger.info("Found {} public deck summaries", summaries.size());
+            return summaries;
+        } catch (Exception e) {
+            logger.error("Error getting public deck summaries", e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public byte[] getPublicDeckSummariesJson(Long subjectId) {
+        return publicDeckCatalogCache.get(PublicDeckCatalogCache.View.SUMMARY, subjectId,
+                () -> getPublicDeckSummaries(subjectId));
+    }
+
     @Override
     public List<Deck> selectPublicDeckBySubject(Long subjectId) {
         try {
             logger.info("Selecting public decks for subject: {}", subjectId);
             List<Deck> decks = deckRepository.findBySubjectIdAndIsPublicTrue(subjectId);
             logger.info("Found {} public decks for subject", decks.size());
+            applyPendingLaunches(decks);
             return decks;
         } catch (Exception e) {
             logger.error("Error selecting public decks by subject", e);
@@ -283,14 +395,60 @@ public class DeckServiceImpl implements DeckService {
     public void incrementLaunchCount(Long id) {
         try {
             logger.info("Incrementing launch count for deck: {}", id);
-            Deck deck = deckRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", id));
-            deck.setLaunchCount(deck.getLaunchCount() + 1);
-            deckRepository.save(deck);
+            if (!deckRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Deck", "id", id);
+            }
+            deckLaunchCounter.increment(id);
             logger.info("Successfully incremented launch count for deck: {}", id);
         } catch (Exception e) {
             logger.error("Error incrementing launch count for deck: {}", id, e);
             throw e;
         }
     }
+
+    private DeckSort parseSort(String sort) {
+        if (sort == null) {
+            return DeckSort.LAUNCH_COUNT;
+        }
+        return DeckSort.fromProperty(sort)
+                .orElseThrow(() -> new BadRequestException("Unsupported sort: " + sort));
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    /**
+     * Builds a page from decks fetched with one extra row, which only tells
+     * whether another page exists.
+     */
+    private DeckPage toPage(List<Deck> decks, DeckSort sort, int limit) {
+        boolean hasNext = decks.size() > limit;
+        List<Deck> items = hasNext ? decks.subList(0, limit) : decks;
+        String nextCursor = hasNext ? DeckCursor.encode(sort, items.get(items.size() - 1)) : null;
+        applyPendingLaunches(items);
+        return new DeckPage(items, nextCursor);
+    }
+
+    private void publishCatalogChange(Subject... subjects) {
+        Set<Long> subjectIds = new HashSet<>();
+        for (Subject subject : subjects) {
+            if (subject != null) {
+                subjectIds.add(subject.getId());
+            }
+        }
+        eventPublisher.publishEvent(new PublicCatalogChangedEvent(subjectIds));
+    }
+
+    private void publishListingChange(Deck deck) {
+        eventPublisher.publishEvent(new DeckListingChangedEvent(deck.getId(), deck.getSubject().getId(),
+                deck.isPublic()));
+    }
+
+    private void applyPendingLaunches(List<Deck> decks) {
+        decks.forEach(deck -> deck.setUnflushedLaunchCount(deckLaunchCounter.pending(deck.getId())));
+    }
 }
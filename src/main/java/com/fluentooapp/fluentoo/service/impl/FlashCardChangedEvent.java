@@ -0,0 +1,11 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+/**
+ * Published when the answer of a flashcard may have changed, including when
+ * the card is deleted, so cached copies of it are dropped once the change is
+ * committed.
+ *
+ * @param flashcardId the ID of the flashcard.
+ */
+record FlashCardChangedEvent(Long flashcardId) {
+}
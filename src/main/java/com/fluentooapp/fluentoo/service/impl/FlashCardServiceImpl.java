@@ -1,34 +1,49 @@
 package com.fluentooapp.fluentoo.service.impl;
 
 import com.fluentooapp.fluentoo.dto.FlashCardDto;
+import com.fluentooapp.fluentoo.entity.Deck;
 import com.fluentooapp.fluentoo.entity.FlashCard;
 import com.fluentooapp.fluentoo.repository.DeckRepository;
 import com.fluentooapp.fluentoo.repository.FlashCardRepository;
 import com.fluentooapp.fluentoo.service.FlashCardService;
 import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class FlashCardServiceImpl implements FlashCardService {
 
     private final FlashCardRepository flashCardRepository;
     private final DeckRepository deckRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FlashCardServiceImpl(FlashCardRepository flashCardRepository, DeckRepository deckRepository) {
+    public FlashCardServiceImpl(FlashCardRepository flashCardRepository, DeckRepository deckRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.flashCardRepository = flashCardRepository;
         this.deckRepository = deckRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public void deleteFlashCard(Long id) {
+        flashCardRepository.findById(id).ifPresent(flashCard -> {
+            touchDecks(flashCard.getDeck());
+            publishIfPublic(flashCard.getDeck());
+        });
         flashCardRepository.deleteById(id);
+        eventPublisher.publishEvent(new FlashCardChangedEvent(id));
     }
 
     @Override
+    @Transactional
     public FlashCard saveFlashCard(FlashCardDto flashCardDto) {
         LocalDateTime revisionTime = calculateRevisionTime(1);
         FlashCard flashCard = new FlashCard();
@@ -40,7 +55,10 @@ public class FlashCardServiceImpl implements FlashCardService {
         flashCard.setDeck(deckRepository.findById(flashCardDto.getDeckId())
                 .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", flashCardDto.getDeckId())));
 
-        return flashCardRepository.save(flashCard);
+        FlashCard savedFlashCard = flashCardRepository.save(flashCard);
+        touchDecks(savedFlashCard.getDeck());
+        publishIfPublic(savedFlashCard.getDeck());
+        return savedFlashCard;
     }
 
     @Override
@@ -64,9 +82,11 @@ public class FlashCardServiceImpl implements FlashCardService {
     }
 
     @Override
+    @Transactional
     public FlashCard updateFlashCard(FlashCardDto flashCardDto) {
         FlashCard flashCard = flashCardRepository.findById(flashCardDto.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("FlashCard", "id", flashCardDto.getId()));
+        Deck previousDeck = flashCard.getDeck();
 
         flashCard.setQuestion(flashCardDto.getQuestion());
         flashCard.setAnswer(flashCardDto.getAnswer());
@@ -76,7 +96,11 @@ public class FlashCardServiceImpl implements FlashCardService {
                     .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", flashCardDto.getDeckId())));
         }
 
-        return flashCardRepository.save(flashCard);
+        FlashCard updatedFlashCard = flashCardRepository.save(flashCard);
+        eventPublisher.publishEvent(new FlashCardChangedEvent(updatedFlashCard.getId()));
+        touchDecks(previousDeck, updatedFlashCard.getDeck());
+        publishIfPublic(previousDeck, updatedFlashCard.getDeck());
+        return updatedFlashCard;
     }
 
     @Override
@@ -88,6 +112,38 @@ public class FlashCardServiceImpl implements FlashCardService {
     @Override
     public void update(FlashCard flashCard) {
         flashCardRepository.save(flashCard);
+        eventPublisher.publishEvent(new FlashCardChangedEvent(flashCard.getId()));
+    }
+
+    /**
+     * Bumps the update time of decks whose cards changed, so clients holding
+     * their card list revalidate it.
+     */
+    private void touchDecks(Deck... decks) {
+        Set<Long> deckIds = new HashSet<>();
+        for (Deck deck : decks) {
+            if (deck != null) {
+                deckIds.add(deck.getId());
+            }
+        }
+        if (!deckIds.isEmpty()) {
+            deckRepository.touch(deckIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Invalidates the cached public catalog when a card of a public deck changes.
+     */
+    private void publishIfPublic(Deck... decks) {
+        Set<Long> subjectIds = new HashSet<>();
+        for (Deck deck : decks) {
+            if (deck != null && deck.isPublic() && deck.getSubject() != null) {
+                subjectIds.add(deck.getSubject().getId());
+            }
+        }
+        if (!subjectIds.isEmpty()) {
+            eventPublisher.publishEvent(new PublicCatalogChangedEvent(subjectIds));
+        }
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingTileDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * The pairs of a matching game: the sampled flashcards in the order their
+ * questions are laid out, and the order their answers are laid out in, as
+ * positions of those pairs. Players only see tile positions, which are mapped
+ * back to pairs here. Immutable once generated.
+ */
+final class MatchingBoard {
+
+    private final long[] cardIds;
+    private final String[] questions;
+    private final String[] answers;
+    private final int[] answerOrder;
+
+    MatchingBoard(long[] cardIds, String[] questions, String[] answers, int[] answerOrder) {
+        this.cardIds = cardIds;
+        this.questions = questions;
+        this.answers = answers;
+        this.answerOrder = answerOrder;
+    }
+
+    int size() {
+        return cardIds.length;
+    }
+
+    /**
+     * Returns the pair a question tile belongs to.
+     *
+     * @param questionPosition the position of the tile in question order.
+     * @return the position of the pair, or -1 when there is no such tile.
+     */
+    int pairOfQuestion(int questionPosition) {
+        return questionPosition >= 0 && questionPosition < cardIds.length ? questionPosition : -1;
+    }
+
+    /**
+     * Returns the pair an answer tile belongs to.
+     *
+     * @param answerPosition the position of the tile in answer order.
+     * @return the position of the pair, or -1 when there is no such tile.
+     */
+    int pairOfAnswer(int answerPosition) {
+        return answerPosition >= 0 && answerPosition < answerOrder.length ? answerOrder[answerPosition] : -1;
+    }
+
+    /**
+     * Returns the question tiles in question order.
+     *
+     * @param matched tells whether the pair at a position is matched.
+     */
+    List<MatchingTileDTO> toQuestionTiles(IntPredicate matched) {
+        List<MatchingTileDTO> tiles = new ArrayList<>(cardIds.length);
+        for (int i = 0; i < cardIds.length; i++) {
+            tiles.add(new MatchingTileDTO(i, questions[i], matched.test(i)));
+        }
+        return tiles;
+    }
+
+    /**
+     * Returns the answer tiles in answer order.
+     *
+     * @param matched tells whether the pair at a position is matched.
+     */
+    List<MatchingTileDTO> toAnswerTiles(IntPredicate matched) {
+        List<MatchingTileDTO> tiles = new ArrayList<>(answerOrder.length);
+        for (int i = 0; i < answerOrder.length; i++) {
+            tiles.add(new MatchingTileDTO(i, answers[answerOrder[i]], matched.test(answerOrder[i])));
+        }
+        return tiles;
+    }
+}
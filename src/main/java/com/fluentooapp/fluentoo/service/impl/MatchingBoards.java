@@ -0,0 +1,140 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingPairDTO;
+import com.fluentooapp.fluentoo.entity.MatchingGame;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the {@link MatchingBoard} of a game and caches it by game id. A
+ * board is drawn from the card ids of the deck, in id order, with a random
+ * generator seeded by the game's board seed, so a board that left the cache is
+ * generated again identically as long as the deck did not change.
+ */
+@Component
+class MatchingBoards {
+
+    private final FlashCardRepository flashCardRepository;
+
+    private final BoundedCache<Long, MatchingBoard> boards;
+
+    MatchingBoards(FlashCardRepository flashCardRepository,
+            @Value("${matching.board.cache-max-size:10000}") int cacheMaxSize) {
+        this.flashCardRepository = flashCardRepository;
+        this.boards = new BoundedCache<>(cacheMaxSize);
+    }
+
+    /**
+     * Generates the board of a new game, cached once the current transaction
+     * commits, or right away outside of one, so a rolled back game leaves no
+     * board behind.
+     *
+     * @param game        the saved game, with its seed and number of pairs.
+     * @param deckCardIds the card ids of the deck, in id order.
+     * @return the board.
+     */
+    MatchingBoard create(MatchingGame game, List<Long> deckCardIds) {
+        MatchingBoard board = generate(game.getBoardSeed(), deckCardIds, game.getTotalPairs());
+        Long gameId = game.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    boards.put(gameId, board);
+                }
+            });
+        } else {
+            boards.put(gameId, board);
+        }
+        return board;
+    }
+
+    /**
+     * Returns the board of a game, generating it again on a cache miss.
+     *
+     * @param game the game.
+     * @return the board.
+     */
+    MatchingBoard get(MatchingGame game) {
+        MatchingBoard board = boards.get(game.getId());
+        if (board == null) {
+            // Games started before boards were seeded get a stable board all the same
+            long seed = game.getBoardSeed() != null ? game.getBoardSeed() : game.getId();
+            board = generate(seed, flashCardRepository.findIdsByDeckId(game.getDeck().getId()),
+                    game.getTotalPairs());
+            boards.put(game.getId(), board);
+        }
+        return board;
+    }
+
+    MatchingBoard getIfCached(Long gameId) {
+        return boards.get(gameId);
+    }
+
+    void evict(Long gameId) {
+        boards.remove(gameId);
+    }
+
+    /**
+     * Draws a board without caching it, such as the board shared by a race.
+     *
+     * @param seed        the seed of the random generator.
+     * @param deckCardIds the card ids of the deck, in id order.
+     * @param pairs       the largest number of pairs.
+     * @return the board.
+     */
+    MatchingBoard generate(long seed, List<Long> deckCardIds, int pairs) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] pool = deckCardIds.stream().mapToLong(Long::longValue).toArray();
+        int size = Math.min(pairs, pool.length);
+        // Partial Fisher-Yates: the first positions end up sampled and shuffled
+        for (int i = 0; i < size; i++) {
+            swap(pool, i, i + random.nextInt(pool.length - i));
+        }
+        long[] sampled = Arrays.copyOf(pool, size);
+        int[] answerOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            answerOrder[i] = i;
+        }
+        for (int i = answerOrder.length - 1; i > 0; i--) {
+            swap(answerOrder, i, random.nextInt(i + 1));
+        }
+
+        Map<Long, MatchingPairDTO> cards = flashCardRepository
+                .findPairsByIdIn(Arrays.stream(sampled).boxed().toList()).stream()
+                .collect(Collectors.toMap(MatchingPairDTO::getFlashcardId, Function.identity()));
+        String[] questions = new String[size];
+        String[] answers = new String[size];
+        for (int i = 0; i < size; i++) {
+            MatchingPairDTO card = cards.get(sampled[i]);
+            if (card != null) {
+                questions[i] = card.getQuestion();
+                answers[i] = card.getAnswer();
+            }
+        }
+        return new MatchingBoard(sampled, questions, answers, answerOrder);
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
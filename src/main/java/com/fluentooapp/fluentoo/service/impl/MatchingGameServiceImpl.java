@@ -1,43 +1,79 @@
 package com.fluentooapp.fluentoo.service.impl;
 
+import com.fluentooapp.fluentoo.dto.LeaderboardDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardMetric;
+import com.fluentooapp.fluentoo.dto.LeaderboardScope;
 import com.fluentooapp.fluentoo.dto.MatchingGameDTO;
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingResult;
 import com.fluentooapp.fluentoo.entity.Deck;
-import com.fluentooapp.fluentoo.entity.FlashCard;
 import com.fluentooapp.fluentoo.entity.MatchingGame;
 import com.fluentooapp.fluentoo.entity.User;
-import com.fluentooapp.fluentoo.entity.UserStats;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
 import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
 import com.fluentooapp.fluentoo.exception.UnauthorizedException;
 import com.fluentooapp.fluentoo.repository.DeckRepository;
 import com.fluentooapp.fluentoo.repository.FlashCardRepository;
 import com.fluentooapp.fluentoo.repository.MatchingGameRepository;
-import com.fluentooapp.fluentoo.repository.UserRepository;
-import com.fluentooapp.fluentoo.repository.UserStatsRepository;
+import com.fluentooapp.fluentoo.security.CurrentUserProvider;
 import com.fluentooapp.fluentoo.service.MatchingGameService;
 import com.fluentooapp.fluentoo.service.UserStatsService;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class MatchingGameServiceImpl implements MatchingGameService {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchingGameServiceImpl.class);
 
     private final MatchingGameRepository matchingGameRepository;
     private final DeckRepository deckRepository;
-    private final UserRepository userRepository;
     private final FlashCardRepository flashCardRepository;
     private final UserStatsService userStatsService;
-    private final UserStatsRepository userStatsRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final DeckLaunchCounter deckLaunchCounter;
+    private final MatchingLeaderboards matchingLeaderboards;
+    private final MatchingBoards matchingBoards;
+    private final MatchingGameStates matchingGameStates;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${matching.board.pairs:8}")
+    private int boardPairs;
+
+    @Value("${matching.leaderboard.default-size:10}")
+    private int defaultLeaderboardSize;
+
+    @Value("${matching.leaderboard.max-size:100}")
+    private int maxLeaderboardSize;
+
+    public MatchingGameServiceImpl(MatchingGameRepository matchingGameRepository, DeckRepository deckRepository,
+            FlashCardRepository flashCardRepository, UserStatsService userStatsService,
+            CurrentUserProvider currentUserProvider, DeckLaunchCounter deckLaunchCounter,
+            MatchingLeaderboards matchingLeaderboards, MatchingBoards matchingBoards,
+            MatchingGameStates matchingGameStates, PlatformTransactionManager transactionManager) {
+        this.matchingGameRepository = matchingGameRepository;
+        this.deckRepository = deckRepository;
+        this.flashCardRepository = flashCardRepository;
+        this.userStatsService = userStatsService;
+        this.currentUserProvider = currentUserProvider;
+        this.deckLaunchCounter = deckLaunchCounter;
+        this.matchingLeaderboards = matchingLeaderboards;
+        this.matchingBoards = matchingBoards;
+        this.matchingGameStates = matchingGameStates;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     @Transactional
@@ -46,96 +82,101 @@ public class MatchingGameServiceImpl implements MatchingGameService {
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
 
-        if (!deck.isPublic() && !deck.getCreatedBy().equals(currentUser)) {
+        if (!deck.isPublic() && !deck.getCreatedBy().getId().equals(currentUser.getId())) {
             throw new UnauthorizedException("You don't have access to this deck");
         }
 
         // Increment launch count
-        deck.setLaunchCount(deck.getLaunchCount() + 1);
-        deck = deckRepository.save(deck);
+        deckLaunchCounter.increment(deckId);
 
-        List<FlashCard> flashCards = flashCardRepository.findByDeckId(deckId);
-        if (flashCards.isEmpty()) {
+        List<Long> cardIds = flashCardRepository.findIdsByDeckId(deckId);
+        if (cardIds.isEmpty()) {
             throw new IllegalStateException("No flashcards found for this deck");
         }
 
         MatchingGame game = new MatchingGame();
         game.setDeck(deck);
         game.setUser(currentUser);
-        game.setTotalPairs(flashCards.size());
+        game.setTotalPairs(Math.min(boardPairs, cardIds.size()));
+        game.setBoardSeed(ThreadLocalRandom.current().nextLong());
 
         game = matchingGameRepository.save(game);
 
-        return convertToDTO(game, flashCards);
+        MatchingBoard board = matchingBoards.create(game, cardIds);
+        MatchingGameState state = newState(game, currentUser, board, System.nanoTime());
+        matchingGameStates.openAfterCommit(state);
+        return convertToDTO(game, state);
     }
 
     @Override
     public MatchingGameDTO getGame(Long gameId) {
-        MatchingGame game = matchingGameRepository.findById(gameId)
+        MatchingGame game = matchingGameRepository.findWithDetailsById(gameId)
                 .orElseThrow(() -> new ResourceNotFoundException("Game", "id", gameId));
         validateOwnership(game);
 
-        List<FlashCard> flashCards = flashCardRepository.findByDeckId(game.getDeck().getId());
-        return convertToDTO(game, flashCards);
+        if (game.getCompletionTimeInSeconds() != null) {
+            return convertToDTO(game, null);
+        }
+        MatchingGameState state = matchingGameStates.get(gameId);
+        return convertToDTO(game, state != null ? state : openState(game));
+    }
+
+    @Override
+    public MatchingMoveResponse submitMove(Long gameId, MatchingMoveRequest move) {
+        User currentUser = getCurrentUser();
+        MatchingGameState state = matchingGameStates.get(gameId);
+        if (state == null) {
+            MatchingGame game = matchingGameRepository.findWithDetailsById(gameId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Game", "id", gameId));
+            validateOwnership(game);
+            if (game.getCompletionTimeInSeconds() != null) {
+                throw new BadRequestException("Game is already completed");
+            }
+            state = openState(game);
+        } else if (!state.getUserId().equals(currentUser.getId())) {
+            throw new UnauthorizedException("Not authorized to access this game");
+        }
+
+        MatchingBoard board = state.getBoard();
+        int questionPair = board.pairOfQuestion(move.getQuestionPosition());
+        int answerPair = board.pairOfAnswer(move.getAnswerPosition());
+        if (questionPair < 0 || answerPair < 0) {
+            throw new BadRequestException("Tile is not on the board of this game");
+        }
+        MatchingGameState.Move played = state.play(questionPair, answerPair);
+        if (played == null) {
+            throw new BadRequestException("Card is already matched");
+        }
+
+        if (played.completing()) {
+            persistCompletion(state, currentUser);
+        }
+        // A duplicate of the completing move also reports the completed game
+        boolean completed = state.isComplete();
+        return new MatchingMoveResponse(gameId, played.correct(), played.matchedPairs(), board.size(),
+                played.attempts(), completed, completed ? state.getCompletionTimeInSeconds() : null);
     }
 
     @Override
-    @Transactional
     public MatchingGameDTO completeGame(Long gameId) {
-        MatchingGame gameEntity = matchingGameRepository.findById(gameId)
+        MatchingGame game = matchingGameRepository.findById(gameId)
                 .orElseThrow(() -> new ResourceNotFoundException("Game", "id", gameId));
-        validateOwnership(gameEntity);
+        validateOwnership(game);
 
-        if (gameEntity.getCompletionTimeInSeconds() != null) {
-            throw new IllegalStateException("Game is already completed");
+        MatchingGameDTO dto = convertToDTO(game, null);
+        if (game.getCompletionTimeInSeconds() == null) {
+            // Only retries the write when the completing move failed to persist the game
+            MatchingGameState state = matchingGameStates.get(gameId);
+            if (state == null || !state.isComplete()) {
+                throw new BadRequestException("Not every pair of the game is matched");
+            }
+            if (!persistCompletion(state, getCurrentUser())) {
+                throw new IllegalStateException("Game is being completed");
+            }
+            dto.setCompletionTimeInSeconds(state.getCompletionTimeInSeconds());
+            dto.setTotalAttempts(state.getAttempts());
         }
-
-        // Get user stats
-        UserStats userStats = userStatsRepository.findByUser(gameEntity.getUser())
-                .orElseThrow(() -> new ResourceNotFoundException("UserStats", "user", gameEntity.getUser().getId()));
-
-        // Log current stats before update
-        logger.info(
-                "Before update - User stats for {}: matchingGamesCompleted={}, totalMatchesFound={}, totalMatchingAttempts={}",
-                gameEntity.getUser().getEmail(),
-                userStats.getMatchingGamesCompleted(),
-                userStats.getTotalMatchesFound(),
-                userStats.getTotalMatchingAttempts());
-
-        // Update matching game statistics
-        userStats.setMatchingGamesCompleted(userStats.getMatchingGamesCompleted() + 1);
-        userStats.setMatchingGamePoints(userStats.getMatchingGamePoints() + (gameEntity.getTotalPairs() * 5));
-        userStats.setTotalMatchesFound(userStats.getTotalMatchesFound() + gameEntity.getTotalPairs());
-        userStats.setTotalMatchingAttempts(userStats.getTotalMatchingAttempts() + gameEntity.getTotalAttempts());
-
-        // Log stats after update
-        logger.info(
-                "After update - User stats for {}: matchingGamesCompleted={}, totalMatchesFound={}, totalMatchingAttempts={}",
-                gameEntity.getUser().getEmail(),
-                userStats.getMatchingGamesCompleted(),
-                userStats.getTotalMatchesFound(),
-                userStats.getTotalMatchingAttempts());
-
-        // Log game stats
-        logger.info("Game stats for game {}: totalPairs={}, totalAttempts={}",
-                gameId,
-                gameEntity.getTotalPairs(),
-                gameEntity.getTotalAttempts());
-
-        // Update general user stats
-        userStatsService.updateUserStats(
-                gameEntity.getUser(),
-                gameEntity.getTotalPairs() * 5, // 5 points per matched pair
-                gameEntity.getTotalPairs(), // Each completed game counts as cards reviewed
-                0 // No time tracking needed
-        );
-
-        // Save both entities
-        userStats = userStatsRepository.save(userStats);
-        MatchingGame savedGame = matchingGameRepository.save(gameEntity);
-
-        List<FlashCard> flashCards = flashCardRepository.findByDeckId(savedGame.getDeck().getId());
-        return convertToDTO(savedGame, flashCards);
+        return dto;
     }
 
     @Override
@@ -143,7 +184,7 @@ public class MatchingGameServiceImpl implements MatchingGameService {
         User currentUser = getCurrentUser();
         return matchingGameRepository.findTop10ByDeckIdAndUserOrderByCompletionTimeInSecondsAsc(deckId, currentUser)
                 .stream()
-                .map(game -> convertToDTO(game, new ArrayList<>()))
+                .map(game -> convertToDTO(game, null))
                 .collect(Collectors.toList());
     }
 
@@ -152,11 +193,96 @@ public class MatchingGameServiceImpl implements MatchingGameService {
         User currentUser = getCurrentUser();
         return matchingGameRepository.findTop10ByUserOrderByCreatedAtDesc(currentUser)
                 .stream()
-                .map(game -> convertToDTO(game, new ArrayList<>()))
+                .map(game -> convertToDTO(game, null))
                 .collect(Collectors.toList());
     }
 
-    private MatchingGameDTO convertToDTO(MatchingGame game, List<FlashCard> flashCards) {
+    @Override
+    public LeaderboardDto getLeaderboard(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric,
+            Integer limit) {
+        User currentUser = getCurrentUser();
+        if (scope == LeaderboardScope.GLOBAL) {
+            scopeId = null;
+        } else if (scopeId == null) {
+            throw new BadRequestException("The " + scope.getName() + " leaderboard needs an id");
+        }
+        if (scope == LeaderboardScope.DECK) {
+            Long deckId = scopeId;
+            Deck deck = deckRepository.findById(deckId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
+            if (!deck.isPublic() && !deck.getCreatedBy().getId().equals(currentUser.getId())) {
+                throw new UnauthorizedException("You don't have access to this deck");
+            }
+        }
+
+        int size = limit != null ? Math.max(1, Math.min(limit, maxLeaderboardSize)) : defaultLeaderboardSize;
+        return matchingLeaderboards.get(scope, scopeId, metric, size, currentUser.getId());
+    }
+
+    /**
+     * Opens the state of a game whose state is not held, such as after a
+     * restart. Matches made so far are lost, but the clock keeps running from
+     * the start of the game.
+     *
+     * @param game the game, loaded with its deck, subject and player.
+     */
+    private MatchingGameState openState(MatchingGame game) {
+        long elapsedNanos = game.getCreatedAt() != null
+                ? Duration.between(game.getCreatedAt(), LocalDateTime.now()).toNanos()
+                : 0;
+        return matchingGameStates.open(newState(game, game.getUser(), matchingBoards.get(game),
+                System.nanoTime() - Math.max(0, elapsedNanos)));
+    }
+
+    private MatchingGameState newState(MatchingGame game, User player, MatchingBoard board, long startNanos) {
+        Deck deck = game.getDeck();
+        return new MatchingGameState(new MatchingResult(game.getId(), player.getId(), player.getFirstName(),
+                player.getLastName(), deck.getId(), deck.getSubject().getId(), deck.isPublic(), null, 0, game.getCreatedAt()),
+                board, startNanos);
+    }
+
+    /**
+     * Writes a completed game and its stats once, with one UPDATE of the game
+     * row and one of the stats row; everything else is known from the state.
+     *
+     * @param state  the state of the completed game.
+     * @param player the player, as the stats are written for them.
+     * @return false when another caller is writing the game.
+     */
+    private boolean persistCompletion(MatchingGameState state, User player) {
+        if (!state.startPersisting()) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                MatchingResult result = state.toResult();
+                if (matchingGameRepository.complete(result.gameId(), result.completionTimeInSeconds(),
+                        result.totalAttempts()) == 0) {
+                    // Already written, stats included
+                    return;
+                }
+
+                logger.info("Game stats for game {}: totalPairs={}, totalAttempts={}, completionTime={}s",
+                        result.gameId(), state.getBoard().size(), result.totalAttempts(),
+                        result.completionTimeInSeconds());
+
+                // Update matching game and general user stats, 5 points per matched pair
+                int pairs = state.getBoard().size();
+                userStatsService.updateAfterMatchingGame(player, pairs * 5, pairs, result.totalAttempts());
+                matchingLeaderboards.record(result);
+            });
+        } catch (RuntimeException e) {
+            state.persistFailed();
+            throw e;
+        }
+
+        // A finished board is not played again
+        matchingGameStates.remove(state);
+        matchingBoards.evict(state.getGameId());
+        return true;
+    }
+
+    private MatchingGameDTO convertToDTO(MatchingGame game, MatchingGameState state) {
         MatchingGameDTO dto = new MatchingGameDTO();
         dto.setId(game.getId());
         dto.setDeckId(game.getDeck().getId());
@@ -164,13 +290,17 @@ public class MatchingGameServiceImpl implements MatchingGameService {
         dto.setTotalPairs(game.getTotalPairs());
         dto.setTotalAttempts(game.getTotalAttempts());
         dto.setCreatedAt(game.getCreatedAt());
+        if (state != null) {
+            // The game row only gets the attempts once the game completes
+            dto.setTotalAttempts(state.getAttempts());
+            dto.setQuestions(state.getBoard().toQuestionTiles(state::isMatched));
+            dto.setAnswers(state.getBoard().toAnswerTiles(state::isMatched));
+        }
         return dto;
     }
 
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+        return currentUserProvider.getCurrentUser();
     }
 
     private void validateOwnership(MatchingGame game) {
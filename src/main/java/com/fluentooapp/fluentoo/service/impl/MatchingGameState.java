@@ -0,0 +1,155 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory state of a matching game in play: which pairs of its board are
+ * matched, as a bitset indexed by board position, how many attempts were made
+ * and when play started. Every update is a compare-and-set, so moves on a game
+ * never block each other and the completing move is found exactly once.
+ */
+final class MatchingGameState {
+
+    /**
+     * Outcome of a move.
+     *
+     * @param correct      whether the two cards form a pair.
+     * @param matchedPairs the number of pairs matched so far.
+     * @param attempts     the number of attempts so far.
+     * @param completing   whether this move matched the last pair.
+     */
+    record Move(boolean correct, int matchedPairs, int attempts, boolean completing) {
+    }
+
+    private final MatchingResult game;
+    private final MatchingBoard board;
+    private final long startNanos;
+    private final AtomicLongArray matched;
+    private final AtomicInteger matchedCount = new AtomicInteger();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicBoolean persisting = new AtomicBoolean();
+    private volatile long completionNanos = -1;
+    private volatile long lastTouched = System.currentTimeMillis();
+
+    /**
+     * @param game       the game and its player, without a result yet; kept so
+     *                   completing the game does not read its row again.
+     * @param board      the board of the game.
+     * @param startNanos the {@link System#nanoTime()} play started at.
+     */
+    MatchingGameState(MatchingResult game, MatchingBoard board, long startNanos) {
+        this.game = game;
+        this.board = board;
+        this.startNanos = startNanos;
+        this.matched = new AtomicLongArray((board.size() + 63) >>> 6);
+    }
+
+    Long getGameId() {
+        return game.gameId();
+    }
+
+    Long getUserId() {
+        return game.userId();
+    }
+
+    MatchingBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Plays a move: counts an attempt and, when both positions hold the same
+     * card, matches that pair. A correct move on a pair already matched, like a
+     * retried or concurrent duplicate, is not counted again and is answered as
+     * correct.
+     *
+     * @param questionPosition the board position of the chosen question.
+     * @param answerPosition   the board position of the chosen answer.
+     * @return the outcome, or null when a wrong move picks a matched card.
+     */
+    Move play(int questionPosition, int answerPosition) {
+        lastTouched = System.currentTimeMillis();
+        if (questionPosition != answerPosition) {
+            if (isMatched(questionPosition) || isMatched(answerPosition)) {
+                return null;
+            }
+            return new Move(false, matchedCount.get(), attempts.incrementAndGet(), false);
+        }
+        // The pair is claimed before the attempt is counted, so only one of racing duplicates counts
+        if (!setMatched(questionPosition)) {
+            return new Move(true, matchedCount.get(), attempts.get(), false);
+        }
+        int attempt = attempts.incrementAndGet();
+        int matchedPairs = matchedCount.incrementAndGet();
+        boolean completing = matchedPairs == board.size();
+        if (completing) {
+            completionNanos = System.nanoTime();
+        }
+        return new Move(true, matchedPairs, attempt, completing);
+    }
+
+    boolean isMatched(int position) {
+        return (matched.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    int getMatchedCount() {
+        return matchedCount.get();
+    }
+
+    int getAttempts() {
+        return attempts.get();
+    }
+
+    boolean isComplete() {
+        return completionNanos >= 0;
+    }
+
+    /**
+     * Returns the whole seconds from the start of play to the last match.
+     */
+    long getCompletionTimeInSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(completionNanos - startNanos);
+    }
+
+    /**
+     * Returns the result of the completed game, as ranked by the leaderboards.
+     */
+    MatchingResult toResult() {
+        return new MatchingResult(game.gameId(), game.userId(), game.firstName(), game.lastName(), game.deckId(),
+                game.subjectId(), game.publicDeck(), getCompletionTimeInSeconds(), getAttempts(), game.playedAt());
+    }
+
+    /**
+     * Claims the write of the completed game, so only one caller persists it.
+     */
+    boolean startPersisting() {
+        return persisting.compareAndSet(false, true);
+    }
+
+    // Lets a later call retry a failed write
+    void persistFailed() {
+        persisting.set(false);
+    }
+
+    long getLastTouched() {
+        return lastTouched;
+    }
+
+    private boolean setMatched(int position) {
+        int word = position >>> 6;
+        long bit = 1L << position;
+        while (true) {
+            long current = matched.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (matched.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded store of the {@link MatchingGameState}s of games in play. Nothing is
+ * written while a game is played: the game row is only updated once, when its
+ * last pair is matched. A state dropped for being idle or for exceeding the
+ * capacity is opened again from the game row if its player comes back, with
+ * the clock still running from the start of the game.
+ */
+@Component
+class MatchingGameStates {
+
+    @Value("${matching.state.max-games:10000}")
+    private int maxGames;
+
+    @Value("${matching.state.idle-timeout-ms:3600000}")
+    private long idleTimeoutMs;
+
+    private final Map<Long, MatchingGameState> states = new ConcurrentHashMap<>();
+
+    MatchingGameState get(Long gameId) {
+        return states.get(gameId);
+    }
+
+    /**
+     * Adds a state unless one is already held for its game.
+     *
+     * @return the state held for the game.
+     */
+    MatchingGameState open(MatchingGameState state) {
+        MatchingGameState existing = states.putIfAbsent(state.getGameId(), state);
+        if (existing != null) {
+            return existing;
+        }
+        if (states.size() > maxGames) {
+            states.values().stream()
+                    .filter(held -> !held.isComplete())
+                    .min(Comparator.comparingLong(MatchingGameState::getLastTouched))
+                    .ifPresent(this::remove);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the state of a new game once the current transaction commits, or
+     * right away outside of one, so a move never reaches a game whose row does
+     * not exist.
+     */
+    void openAfterCommit(MatchingGameState state) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    open(state);
+                }
+            });
+        } else {
+            open(state);
+        }
+    }
+
+    void remove(MatchingGameState state) {
+        states.remove(state.getGameId(), state);
+    }
+
+    // Completed states are kept: one whose write failed is the only record of its result until retried
+    @Scheduled(fixedDelayString = "${matching.state.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMs;
+        states.values().removeIf(state -> !state.isComplete() && state.getLastTouched() < idleSince);
+    }
+}
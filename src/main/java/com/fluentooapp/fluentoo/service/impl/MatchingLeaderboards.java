@@ -0,0 +1,288 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.LeaderboardDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardEntryDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardMetric;
+import com.fluentooapp.fluentoo.dto.LeaderboardScope;
+import com.fluentooapp.fluentoo.dto.MatchingResult;
+import com.fluentooapp.fluentoo.repository.MatchingGameRepository;
+import com.fluentooapp.fluentoo.util.RankedSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory matching game leaderboards, globally, per deck and per subject,
+ * by fastest time and by fewest attempts. Each board keeps the best game of
+ * every player in a {@link RankedSet}, so the top of a board is read in order
+ * and the position of a player is found in O(log n). The boards are built from
+ * the completed games on startup and updated as games complete. The global and
+ * subject boards only rank games on public decks, as anyone may read them.
+ */
+@Component
+class MatchingLeaderboards {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingLeaderboards.class);
+
+    private static final Comparator<MatchingResult> BY_PLAYED_AT = Comparator
+            .comparing(MatchingResult::playedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(MatchingResult::gameId);
+
+    private static final Comparator<MatchingResult> BY_TIME = Comparator
+            .comparing(MatchingResult::completionTimeInSeconds)
+            .thenComparingInt(MatchingResult::totalAttempts)
+            .thenComparing(BY_PLAYED_AT);
+
+    private static final Comparator<MatchingResult> BY_ATTEMPTS = Comparator
+            .comparingInt(MatchingResult::totalAttempts)
+            .thenComparing(MatchingResult::completionTimeInSeconds)
+            .thenComparing(BY_PLAYED_AT);
+
+    private record BoardKey(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric) {
+    }
+
+    private static final class Board {
+        private final RankedSet<MatchingResult> ranked;
+        private final Map<Long, MatchingResult> bestByUser = new HashMap<>();
+
+        private Board(LeaderboardMetric metric) {
+            ranked = new RankedSet<>(metric == LeaderboardMetric.FASTEST_TIME ? BY_TIME : BY_ATTEMPTS);
+        }
+    }
+
+    private final MatchingGameRepository matchingGameRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object swapLock = new Object();
+
+    private volatile Map<BoardKey, Board> boards = new ConcurrentHashMap<>();
+
+    // Results recorded while a rebuild reads the games, replayed onto the rebuilt boards
+    private List<MatchingResult> recordedDuringRebuild;
+
+    // Decks deleted while a rebuild reads the games, whose games it may still have read
+    private Set<Long> deletedDuringRebuild;
+
+    MatchingLeaderboards(MatchingGameRepository matchingGameRepository,
+            PlatformTransactionManager transactionManager) {
+        this.matchingGameRepository = matchingGameRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Ranks a completed game once the current transaction commits, or right away
+     * outside of one. Games without a completion time are not ranked.
+     *
+     * @param result the game.
+     */
+    void record(MatchingResult result) {
+        if (result.completionTimeInSeconds() == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordNow(result);
+                }
+            });
+        } else {
+            recordNow(result);
+        }
+    }
+
+    /**
+     * Returns the top of a board and the entry of a player.
+     *
+     * @param scope   the games ranked.
+     * @param scopeId the ID of the deck or subject, null for the global scope.
+     * @param metric  what players are ranked by.
+     * @param limit   the number of top entries.
+     * @param userId  the ID of the player to locate.
+     * @return the leaderboard.
+     */
+    LeaderboardDto get(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric, int limit, Long userId) {
+        Board board = boards.get(new BoardKey(scope, scopeId, metric));
+        if (board == null) {
+            return new LeaderboardDto(scope, scopeId, metric, 0, List.of(), null);
+        }
+        synchronized (board) {
+            List<MatchingResult> top = board.ranked.first(limit);
+            List<LeaderboardEntryDto> entries = new ArrayList<>(top.size());
+            for (int i = 0; i < top.size(); i++) {
+                entries.add(toEntry(i + 1, top.get(i)));
+            }
+            MatchingResult own = board.bestByUser.get(userId);
+            LeaderboardEntryDto currentUser = own != null ? toEntry(board.ranked.rank(own) + 1, own) : null;
+            return new LeaderboardDto(scope, scopeId, metric, board.ranked.size(), entries, currentUser);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (swapLock) {
+            recordedDuringRebuild = new ArrayList<>();
+            deletedDuringRebuild = new HashSet<>();
+        }
+
+        Map<BoardKey, Board> rebuilt = new ConcurrentHashMap<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MatchingResult> results = matchingGameRepository.streamCompleted()) {
+                    results.forEach(result -> rank(rebuilt, result));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Games completed from now on are still ranked on the boards in place
+            logger.error("Failed to build matching leaderboards: {}", e.getMessage());
+            synchronized (swapLock) {
+                recordedDuringRebuild = null;
+                deletedDuringRebuild = null;
+            }
+            return;
+        }
+
+        synchronized (swapLock) {
+            deletedDuringRebuild.forEach(deckId -> dropDeck(rebuilt, deckId));
+            recordedDuringRebuild.forEach(result -> rank(rebuilt, result));
+            recordedDuringRebuild = null;
+            deletedDuringRebuild = null;
+            boards = rebuilt;
+        }
+        logger.info("Built {} matching leaderboards", rebuilt.size());
+    }
+
+    private void recordNow(MatchingResult result) {
+        synchronized (swapLock) {
+            rank(boards, result);
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.add(result);
+            }
+        }
+    }
+
+    /**
+     * Drops the games of a deleted deck. Players whose best game was on the deck
+     * leave the global and subject boards until the next rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeckDeleted(DeckDeletedEvent event) {
+        Long deckId = event.deckId();
+        synchronized (swapLock) {
+            dropDeck(boards, deckId);
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.removeIf(result -> deckId.equals(result.deckId()));
+                deletedDuringRebuild.add(deckId);
+            }
+        }
+    }
+
+    /**
+     * Moves the games of a deck that became public or private or changed
+     * subject. They are taken off the global and subject boards and, on a
+     * public deck, ranked there again from the boards of the deck. As when a
+     * deck is deleted, players whose best game was on a deck made private leave
+     * those boards until the next rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeckListingChanged(DeckListingChangedEvent event) {
+        Long deckId = event.deckId();
+        synchronized (swapLock) {
+            Map<BoardKey, Board> current = boards;
+            List<MatchingResult> games = dropDeck(current, deckId);
+            games.forEach(result -> rank(current, relisted(result, event)));
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.replaceAll(result -> deckId.equals(result.deckId())
+                        ? relisted(result, event)
+                        : result);
+            }
+        }
+    }
+
+    /**
+     * Removes the boards of a deck and its games from the other boards.
+     *
+     * @return the games of the deck's boards.
+     */
+    private static List<MatchingResult> dropDeck(Map<BoardKey, Board> boards, Long deckId) {
+        List<MatchingResult> games = new ArrayList<>();
+        boards.entrySet().removeIf(entry -> {
+            BoardKey key = entry.getKey();
+            if (key.scope() != LeaderboardScope.DECK || !deckId.equals(key.scopeId())) {
+                return false;
+            }
+            synchronized (entry.getValue()) {
+                games.addAll(entry.getValue().bestByUser.values());
+            }
+            return true;
+        });
+        boards.values().forEach(board -> {
+            synchronized (board) {
+                board.bestByUser.values().removeIf(result -> {
+                    if (deckId.equals(result.deckId())) {
+                        board.ranked.remove(result);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        });
+        return games;
+    }
+
+    private static MatchingResult relisted(MatchingResult result, DeckListingChangedEvent event) {
+        return new MatchingResult(result.gameId(), result.userId(), result.firstName(), result.lastName(),
+                result.deckId(), event.subjectId(), event.publicDeck(), result.completionTimeInSeconds(),
+                result.totalAttempts(), result.playedAt());
+    }
+
+    private static void rank(Map<BoardKey, Board> boards, MatchingResult result) {
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            rank(boards, new BoardKey(LeaderboardScope.DECK, result.deckId(), metric), result);
+            if (result.publicDeck()) {
+                rank(boards, new BoardKey(LeaderboardScope.GLOBAL, null, metric), result);
+                rank(boards, new BoardKey(LeaderboardScope.SUBJECT, result.subjectId(), metric), result);
+            }
+        }
+    }
+
+    // Keeps only the best game of each player
+    private static void rank(Map<BoardKey, Board> boards, BoardKey key, MatchingResult result) {
+        Board board = boards.computeIfAbsent(key, k -> new Board(k.metric()));
+        synchronized (board) {
+            MatchingResult best = board.bestByUser.get(result.userId());
+            if (best != null && board.ranked.comparator().compare(result, best) >= 0) {
+                return;
+            }
+            if (best != null) {
+                board.ranked.remove(best);
+            }
+            board.ranked.add(result);
+            board.bestByUser.put(result.userId(), result);
+        }
+    }
+
+    private static LeaderboardEntryDto toEntry(int rank, MatchingResult result) {
+        return new LeaderboardEntryDto(rank, result.userId(), result.firstName(), result.lastName(),
+                result.gameId(), result.deckId(), result.completionTimeInSeconds(), result.totalAttempts(),
+                result.playedAt());
+    }
+}
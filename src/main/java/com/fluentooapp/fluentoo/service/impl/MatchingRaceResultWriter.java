@@ -0,0 +1,176 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingResult;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.service.UserStatsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the results of a closed race room in one transaction: one batched
+ * insert of a matching_game row per player who finished, then the stats of
+ * each of them. The games are ranked on the leaderboards like solo games.
+ * Writes run on a thread of their own, so a slow database never holds up the
+ * turns of the rooms. A failed write is kept and retried by a sweep, up to a
+ * number of attempts; results that cannot be written are logged in full.
+ */
+@Component
+class MatchingRaceResultWriter {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingRaceResultWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO matching_game "
+            + "(deck_id, user_id, completion_time_in_seconds, total_pairs, total_attempts, created_at, board_seed) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserStatsService userStatsService;
+    private final UserRepository userRepository;
+    private final MatchingLeaderboards matchingLeaderboards;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "matching-race-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Queue<PendingWrite> failed = new ConcurrentLinkedQueue<>();
+
+    @Value("${matching.race.write-attempts:5}")
+    private int maxAttempts;
+
+    private record PendingWrite(MatchingRaceRoom room, List<MatchingRaceRoom.RaceResult> results, int attempt) {
+    }
+
+    MatchingRaceResultWriter(JdbcTemplate jdbcTemplate, UserStatsService userStatsService,
+            UserRepository userRepository, MatchingLeaderboards matchingLeaderboards,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userStatsService = userStatsService;
+        this.userRepository = userRepository;
+        this.matchingLeaderboards = matchingLeaderboards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues the write of the results of a closed room.
+     *
+     * @param room    the closed room.
+     * @param results the results of the players who finished.
+     */
+    void submit(MatchingRaceRoom room, List<MatchingRaceRoom.RaceResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> attempt(new PendingWrite(room, results, 1)));
+    }
+
+    @Scheduled(fixedDelayString = "${matching.race.write-retry-interval-ms:30000}")
+    public void retryFailed() {
+        // Only the writes failed so far: a write failing again is retried by the next sweep
+        for (int i = failed.size(); i > 0; i--) {
+            PendingWrite pending = failed.poll();
+            if (pending == null) {
+                return;
+            }
+            executor.execute(() -> attempt(pending));
+        }
+    }
+
+    // Gives the writes left a last attempt once the rooms are drained
+    @PreDestroy
+    void drain() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Race result writes did not finish before shutdown");
+        }
+        PendingWrite pending;
+        while ((pending = failed.poll()) != null) {
+            attempt(new PendingWrite(pending.room(), pending.results(), maxAttempts));
+        }
+    }
+
+    private void attempt(PendingWrite pending) {
+        MatchingRaceRoom room = pending.room();
+        try {
+            write(room, pending.results());
+            logger.info("Wrote {} results of race room {}", pending.results().size(), room.getId());
+        } catch (DataIntegrityViolationException e) {
+            // Typically the deck was deleted during the race, which no retry fixes
+            logger.error("Dropped results of race room {} on deck {}: {}; results: {}", room.getId(),
+                    room.getDeckId(), e.getMessage(), pending.results());
+        } catch (RuntimeException e) {
+            if (pending.attempt() >= maxAttempts) {
+                logger.error("Gave up writing results of race room {} on deck {} after {} attempts: {}; results: {}",
+                        room.getId(), room.getDeckId(), pending.attempt(), e.getMessage(), pending.results());
+            } else {
+                logger.warn("Failed to write results of race room {}, attempt {} of {}: {}", room.getId(),
+                        pending.attempt(), maxAttempts, e.getMessage());
+                failed.add(new PendingWrite(room, pending.results(), pending.attempt() + 1));
+            }
+        }
+    }
+
+    private void write(MatchingRaceRoom room, List<MatchingRaceRoom.RaceResult> results) {
+        Timestamp startedAt = Timestamp.valueOf(room.getStartedAt());
+        int pairs = room.getTotalPairs();
+        transactionTemplate.executeWithoutResult(status -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, new String[] { "id" }),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            MatchingRaceRoom.RaceResult result = results.get(i);
+                            ps.setLong(1, room.getDeckId());
+                            ps.setLong(2, result.userId());
+                            ps.setLong(3, result.completionTimeInSeconds());
+                            ps.setInt(4, pairs);
+                            ps.setInt(5, result.totalAttempts());
+                            ps.setTimestamp(6, startedAt);
+                            ps.setLong(7, room.getBoardSeed());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return results.size();
+                        }
+                    },
+                    keys);
+
+            List<Map<String, Object>> gameIds = keys.getKeyList();
+            for (int i = 0; i < results.size(); i++) {
+                MatchingRaceRoom.RaceResult result = results.get(i);
+                Long gameId = ((Number) gameIds.get(i).get("id")).longValue();
+                // 5 points per matched pair, as in a solo game
+                userStatsService.updateAfterMatchingGame(userRepository.getReferenceById(result.userId()),
+                        pairs * 5, pairs, result.totalAttempts());
+                matchingLeaderboards.record(new MatchingResult(gameId, result.userId(), result.firstName(),
+                        result.lastName(), room.getDeckId(), room.getSubjectId(), room.isPublicDeck(),
+                        result.completionTimeInSeconds(), result.totalAttempts(), room.getStartedAt()));
+            }
+        });
+    }
+}
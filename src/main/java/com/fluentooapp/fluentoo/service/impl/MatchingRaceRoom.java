@@ -0,0 +1,401 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingRaceDto;
+import com.fluentooapp.fluentoo.dto.MatchingRacePlayerDto;
+import com.fluentooapp.fluentoo.dto.MatchingRaceStatus;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
+import com.fluentooapp.fluentoo.exception.UnauthorizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A matching race room, run as an actor: every read and change of the room is
+ * a message handled one at a time from its mailbox on a shared executor, so the
+ * room state needs no lock and an idle room holds no thread. Players race on
+ * the same board and follow each other's progress through server-sent events.
+ * When the room closes, the results of the players who finished are handed
+ * over to be written together.
+ */
+final class MatchingRaceRoom {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingRaceRoom.class);
+
+    // Messages handled per turn before the room lets other rooms use the thread
+    private static final int MESSAGES_PER_TURN = 64;
+
+    /**
+     * The result of a player who matched every pair.
+     *
+     * @param userId                  the ID of the player.
+     * @param firstName               the first name of the player.
+     * @param lastName                the last name of the player.
+     * @param completionTimeInSeconds the time taken to match every pair.
+     * @param totalAttempts           the number of attempts taken.
+     */
+    record RaceResult(Long userId, String firstName, String lastName, long completionTimeInSeconds,
+            int totalAttempts) {
+    }
+
+    private static final class Player {
+        private final Long userId;
+        private final String firstName;
+        private final String lastName;
+        private final BitSet matched = new BitSet();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private int attempts;
+        private long finishedNanos = -1;
+        private Integer place;
+
+        private Player(Long userId, String firstName, String lastName) {
+            this.userId = userId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        private boolean isFinished() {
+            return place != null;
+        }
+    }
+
+    private final String id;
+    private final Long deckId;
+    private final Long subjectId;
+    private final boolean publicDeck;
+    private final long boardSeed;
+    private final MatchingBoard board;
+    private final int maxPlayers;
+    private final Executor executor;
+    private final BiConsumer<MatchingRaceRoom, List<RaceResult>> onClose;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Only read and changed by messages
+    private final Map<Long, Player> players = new LinkedHashMap<>();
+    private Long hostId;
+    private MatchingRaceStatus status = MatchingRaceStatus.WAITING;
+    private long startNanos;
+    private LocalDateTime startedAt;
+    private int finishedCount;
+    private long lastActivity = System.currentTimeMillis();
+
+    MatchingRaceRoom(String id, Long deckId, Long subjectId, boolean publicDeck, Long hostId, long boardSeed,
+            MatchingBoard board, int maxPlayers, Executor executor,
+            BiConsumer<MatchingRaceRoom, List<RaceResult>> onClose) {
+        this.id = id;
+        this.deckId = deckId;
+        this.subjectId = subjectId;
+        this.publicDeck = publicDeck;
+        this.hostId = hostId;
+        this.boardSeed = boardSeed;
+        this.board = board;
+        this.maxPlayers = maxPlayers;
+        this.executor = executor;
+        this.onClose = onClose;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Long getDeckId() {
+        return deckId;
+    }
+
+    Long getSubjectId() {
+        return subjectId;
+    }
+
+    boolean isPublicDeck() {
+        return publicDeck;
+    }
+
+    long getBoardSeed() {
+        return boardSeed;
+    }
+
+    int getTotalPairs() {
+        return board.size();
+    }
+
+    // Only read while the room closes, on its own turn
+    LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    CompletableFuture<MatchingRaceDto> join(Long userId, String firstName, String lastName) {
+        return ask(() -> {
+            requireOpen();
+            if (!players.containsKey(userId)) {
+                if (status != MatchingRaceStatus.WAITING) {
+                    throw new BadRequestException("The race has already started");
+                }
+                if (players.size() >= maxPlayers) {
+                    throw new BadRequestException("The room is full");
+                }
+                players.put(userId, new Player(userId, firstName, lastName));
+                broadcast("joined");
+            }
+            return view(userId);
+        });
+    }
+
+    CompletableFuture<MatchingRaceDto> start(Long userId) {
+        return ask(() -> {
+            requirePlayer(userId);
+            if (!userId.equals(hostId)) {
+                throw new UnauthorizedException("Only the host can start the race");
+            }
+            if (status != MatchingRaceStatus.WAITING) {
+                throw new BadRequestException("The race has already started");
+            }
+            status = MatchingRaceStatus.RUNNING;
+            startNanos = System.nanoTime();
+            startedAt = LocalDateTime.now();
+            broadcast("started");
+            return view(userId);
+        });
+    }
+
+    CompletableFuture<MatchingMoveResponse> move(Long userId, int questionTile, int answerTile) {
+        return ask(() -> {
+            Player player = requirePlayer(userId);
+            if (status != MatchingRaceStatus.RUNNING) {
+                throw new BadRequestException("The race is not running");
+            }
+            if (player.isFinished()) {
+                throw new BadRequestException("You already matched every pair");
+            }
+            int questionPosition = board.pairOfQuestion(questionTile);
+            int answerPosition = board.pairOfAnswer(answerTile);
+            if (questionPosition < 0 || answerPosition < 0) {
+                throw new BadRequestException("Tile is not on the board of this race");
+            }
+            if (player.matched.get(questionPosition) || player.matched.get(answerPosition)) {
+                throw new BadRequestException("Card is already matched");
+            }
+
+            player.attempts++;
+            boolean correct = questionPosition == answerPosition;
+            if (correct) {
+                player.matched.set(questionPosition);
+                if (player.matched.cardinality() == board.size()) {
+                    player.finishedNanos = System.nanoTime();
+                    player.place = ++finishedCount;
+                }
+            }
+            broadcast("progress");
+
+            MatchingMoveResponse response = new MatchingMoveResponse(null, correct, player.matched.cardinality(),
+                    board.size(), player.attempts, player.isFinished(),
+                    player.isFinished() ? completionTimeInSeconds(player) : null);
+            if (finishedCount == players.size()) {
+                close();
+            }
+            return response;
+        });
+    }
+
+    CompletableFuture<MatchingRaceDto> leave(Long userId) {
+        return ask(() -> {
+            Player player = requirePlayer(userId);
+            MatchingRaceDto view = view(userId);
+            player.emitters.forEach(SseEmitter::complete);
+            player.emitters.clear();
+            // Players who finished keep their place and result
+            if (!player.isFinished()) {
+                players.remove(userId);
+            }
+            if (userId.equals(hostId)) {
+                hostId = players.keySet().stream().filter(other -> !other.equals(userId)).findFirst()
+                        .orElse(null);
+            }
+
+            if (players.isEmpty() || (status == MatchingRaceStatus.RUNNING && finishedCount == players.size())) {
+                close();
+            } else {
+                broadcast("left");
+            }
+            return view;
+        });
+    }
+
+    CompletableFuture<MatchingRaceDto> snapshot(Long userId) {
+        return ask(() -> {
+            requirePlayer(userId);
+            return view(userId);
+        });
+    }
+
+    /**
+     * Streams the events of the room to a player. Each event carries the room as
+     * seen by that player.
+     */
+    void subscribe(Long userId, SseEmitter emitter) {
+        Runnable unsubscribe = () -> tell(() -> {
+            Player player = players.get(userId);
+            if (player != null) {
+                player.emitters.remove(emitter);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        tell(() -> {
+            Player player = players.get(userId);
+            if (status == MatchingRaceStatus.CLOSED || player == null) {
+                emitter.completeWithError(new BadRequestException("You are not racing in this room"));
+                return;
+            }
+            player.emitters.add(emitter);
+            send(player, emitter, "snapshot");
+        });
+    }
+
+    /**
+     * Closes the room when nobody acted on it for a while, or when the race ran
+     * for too long. Players who finished by then keep their result.
+     */
+    void expire(long idleTimeoutMs, long maxDurationMs) {
+        tell(() -> {
+            boolean idle = lastActivity < System.currentTimeMillis() - idleTimeoutMs;
+            boolean overdue = status == MatchingRaceStatus.RUNNING
+                    && System.nanoTime() - startNanos > TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+            if (idle || overdue) {
+                close();
+            }
+        });
+    }
+
+    void shutdown() {
+        tell(this::close);
+    }
+
+    private <T> CompletableFuture<T> ask(Supplier<T> message) {
+        CompletableFuture<T> reply = new CompletableFuture<>();
+        tell(() -> {
+            try {
+                lastActivity = System.currentTimeMillis();
+                reply.complete(message.get());
+            } catch (RuntimeException e) {
+                reply.completeExceptionally(e);
+            }
+        });
+        return reply;
+    }
+
+    private void tell(Runnable message) {
+        mailbox.add(message);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::runTurn);
+        }
+    }
+
+    private void runTurn() {
+        for (int i = 0; i < MESSAGES_PER_TURN; i++) {
+            Runnable message = mailbox.poll();
+            if (message == null) {
+                break;
+            }
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                logger.error("Race room {} failed to handle a message: {}", id, e.getMessage());
+            }
+        }
+        scheduled.set(false);
+        // A message added after the last poll found the turn still scheduled
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::runTurn);
+        }
+    }
+
+    private void close() {
+        if (status == MatchingRaceStatus.CLOSED) {
+            return;
+        }
+        status = MatchingRaceStatus.CLOSED;
+        broadcast("closed");
+        players.values().forEach(player -> {
+            player.emitters.forEach(SseEmitter::complete);
+            player.emitters.clear();
+        });
+
+        List<RaceResult> results = players.values().stream()
+                .filter(Player::isFinished)
+                .sorted(Comparator.comparing(player -> player.place))
+                .map(player -> new RaceResult(player.userId, player.firstName, player.lastName,
+                        completionTimeInSeconds(player), player.attempts))
+                .toList();
+        logger.info("Closed race room {}: {} players, {} finished", id, players.size(), results.size());
+        onClose.accept(this, results);
+    }
+
+    private void requireOpen() {
+        if (status == MatchingRaceStatus.CLOSED) {
+            throw new BadRequestException("The room is closed");
+        }
+    }
+
+    private Player requirePlayer(Long userId) {
+        requireOpen();
+        Player player = players.get(userId);
+        if (player == null) {
+            throw new UnauthorizedException("You are not racing in this room");
+        }
+        return player;
+    }
+
+    private long completionTimeInSeconds(Player player) {
+        return TimeUnit.NANOSECONDS.toSeconds(player.finishedNanos - startNanos);
+    }
+
+    private void broadcast(String event) {
+        players.values().forEach(player -> new ArrayList<>(player.emitters)
+                .forEach(emitter -> send(player, emitter, event)));
+    }
+
+    private void send(Player player, SseEmitter emitter, String event) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(view(player.userId)));
+        } catch (Exception e) {
+            // The player reconnects to get the events again
+            player.emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private MatchingRaceDto view(Long userId) {
+        List<MatchingRacePlayerDto> playerViews = players.values().stream()
+                .map(player -> new MatchingRacePlayerDto(player.userId, player.firstName, player.lastName,
+                        player.matched.cardinality(), player.attempts,
+                        player.isFinished() ? completionTimeInSeconds(player) : null, player.place))
+                .toList();
+        if (status == MatchingRaceStatus.WAITING) {
+            return new MatchingRaceDto(id, deckId, hostId, status, board.size(), playerViews, null, null);
+        }
+        Player viewer = players.get(userId);
+        IntPredicate matched = position -> viewer != null && viewer.matched.get(position);
+        return new MatchingRaceDto(id, deckId, hostId, status, board.size(), playerViews,
+                board.toQuestionTiles(matched), board.toAnswerTiles(matched));
+    }
+}
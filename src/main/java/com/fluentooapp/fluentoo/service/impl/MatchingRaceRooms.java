@@ -0,0 +1,113 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.exception.BadRequestException;
+import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The open {@link MatchingRaceRoom}s of this node and the thread pool their
+ * turns run on. Rooms only take a thread while they have messages to handle,
+ * so the pool stays small however many rooms are open. Closed rooms are
+ * dropped and their results written by {@link MatchingRaceResultWriter}.
+ */
+@Component
+class MatchingRaceRooms {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingRaceRooms.class);
+
+    private final MatchingRaceResultWriter resultWriter;
+
+    private final ExecutorService executor;
+
+    @Value("${matching.race.max-rooms:10000}")
+    private int maxRooms;
+
+    @Value("${matching.race.max-players:8}")
+    private int maxPlayers;
+
+    @Value("${matching.race.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${matching.race.max-duration-ms:1800000}")
+    private long maxDurationMs;
+
+    private final Map<String, MatchingRaceRoom> rooms = new ConcurrentHashMap<>();
+
+    MatchingRaceRooms(MatchingRaceResultWriter resultWriter,
+            @Value("${matching.race.threads:8}") int threads) {
+        this.resultWriter = resultWriter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "matching-race-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a room for a race on a board.
+     *
+     * @throws BadRequestException if the node already holds the most rooms
+     *                             allowed.
+     */
+    MatchingRaceRoom open(Long deckId, Long subjectId, boolean publicDeck, Long hostId, long boardSeed,
+            MatchingBoard board) {
+        if (rooms.size() >= maxRooms) {
+            throw new BadRequestException("Too many race rooms are open, try again later");
+        }
+        String id = UUID.randomUUID().toString();
+        MatchingRaceRoom room = new MatchingRaceRoom(id, deckId, subjectId, publicDeck, hostId, boardSeed, board,
+                maxPlayers, executor, this::closed);
+        rooms.put(id, room);
+        return room;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no room with this id is open.
+     */
+    MatchingRaceRoom get(String roomId) {
+        MatchingRaceRoom room = rooms.get(roomId);
+        if (room == null) {
+            throw new ResourceNotFoundException("Race room", "id", roomId);
+        }
+        return room;
+    }
+
+    long getEventsTimeoutMs() {
+        return idleTimeoutMs + maxDurationMs;
+    }
+
+    @Scheduled(fixedDelayString = "${matching.race.sweep-interval-ms:30000}")
+    public void expireRooms() {
+        rooms.values().forEach(room -> room.expire(idleTimeoutMs, maxDurationMs));
+    }
+
+    // Lets open rooms close, so results of finished players are still written
+    @PreDestroy
+    void drain() throws InterruptedException {
+        rooms.values().forEach(MatchingRaceRoom::shutdown);
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("{} race rooms did not close before shutdown", rooms.size());
+        }
+    }
+
+    // Runs on the turn of the closing room, which only hands the results over
+    private void closed(MatchingRaceRoom room, List<MatchingRaceRoom.RaceResult> results) {
+        rooms.remove(room.getId(), room);
+        resultWriter.submit(room, results);
+    }
+}
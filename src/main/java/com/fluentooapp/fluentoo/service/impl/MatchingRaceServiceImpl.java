@@ -0,0 +1,105 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingRaceDto;
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import com.fluentooapp.fluentoo.exception.UnauthorizedException;
+import com.fluentooapp.fluentoo.repository.DeckRepository;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.security.CurrentUserProvider;
+import com.fluentooapp.fluentoo.service.MatchingRaceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+public class MatchingRaceServiceImpl implements MatchingRaceService {
+
+    private final DeckRepository deckRepository;
+    private final FlashCardRepository flashCardRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final DeckLaunchCounter deckLaunchCounter;
+    private final MatchingBoards matchingBoards;
+    private final MatchingRaceRooms matchingRaceRooms;
+
+    @Value("${matching.board.pairs:8}")
+    private int boardPairs;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CompletableFuture<MatchingRaceDto> createRoom(Long deckId) {
+        User currentUser = currentUserProvider.loadCurrentUser();
+        Deck deck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
+
+        if (!deck.isPublic() && !deck.getCreatedBy().getId().equals(currentUser.getId())) {
+            throw new UnauthorizedException("You don't have access to this deck");
+        }
+
+        deckLaunchCounter.increment(deckId);
+
+        List<Long> cardIds = flashCardRepository.findIdsByDeckId(deckId);
+        if (cardIds.isEmpty()) {
+            throw new IllegalStateException("No flashcards found for this deck");
+        }
+
+        // The seed is stored with every result, so each game row keeps its board
+        long seed = ThreadLocalRandom.current().nextLong();
+        MatchingBoard board = matchingBoards.generate(seed, cardIds, boardPairs);
+        MatchingRaceRoom room = matchingRaceRooms.open(deckId, deck.getSubject().getId(), deck.isPublic(),
+                currentUser.getId(), seed, board);
+        return room.join(currentUser.getId(), currentUser.getFirstName(), currentUser.getLastName());
+    }
+
+    @Override
+    public CompletableFuture<MatchingRaceDto> joinRoom(String roomId) {
+        MatchingRaceRoom room = matchingRaceRooms.get(roomId);
+        // Names are read with no transaction open, so the user is loaded rather than referenced
+        User currentUser = currentUserProvider.loadCurrentUser();
+        return room.join(currentUser.getId(), currentUser.getFirstName(), currentUser.getLastName());
+    }
+
+    @Override
+    public CompletableFuture<MatchingRaceDto> startRace(String roomId) {
+        return matchingRaceRooms.get(roomId).start(getCurrentUser().getId());
+    }
+
+    @Override
+    public CompletableFuture<MatchingMoveResponse> submitMove(String roomId, MatchingMoveRequest move) {
+        return matchingRaceRooms.get(roomId)
+                .move(getCurrentUser().getId(), move.getQuestionPosition(), move.getAnswerPosition());
+    }
+
+    @Override
+    public CompletableFuture<MatchingRaceDto> leaveRoom(String roomId) {
+        return matchingRaceRooms.get(roomId).leave(getCurrentUser().getId());
+    }
+
+    @Override
+    public CompletableFuture<MatchingRaceDto> getRoom(String roomId) {
+        return matchingRaceRooms.get(roomId).snapshot(getCurrentUser().getId());
+    }
+
+    @Override
+    public SseEmitter subscribe(String roomId) {
+        MatchingRaceRoom room = matchingRaceRooms.get(roomId);
+        SseEmitter emitter = new SseEmitter(matchingRaceRooms.getEventsTimeoutMs());
+        room.subscribe(getCurrentUser().getId(), emitter);
+        return emitter;
+    }
+
+    // Resolved on the request thread, before any message reaches a room
+    private User getCurrentUser() {
+        return currentUserProvider.getCurrentUser();
+    }
+}
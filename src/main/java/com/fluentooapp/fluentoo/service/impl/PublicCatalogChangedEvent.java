@@ -0,0 +1,12 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import java.util.Set;
+
+/**
+ * Published when a change affects public decks, so cached catalog views of the
+ * given subjects (and the full catalog) are rebuilt.
+ *
+ * @param subjectIds the subjects whose public deck listings changed.
+ */
+record PublicCatalogChangedEvent(Set<Long> subjectIds) {
+}
@@ -0,0 +1,85 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the public deck catalog, kept whole and per subject, in
+ * full and summary form, as pre-serialized JSON. Entries are dropped when a {@link PublicCatalogChangedEvent}
+ * is committed, and refreshed after a TTL so unflushed launch counts show up.
+ */
+@Component
+class PublicDeckCatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(PublicDeckCatalogCache.class);
+
+    enum View {
+        FULL, SUMMARY
+    }
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${decks.catalog-cache.ttl:60}")
+    private long ttlSeconds;
+
+    private final Map<CatalogKey, CachedCatalog> catalogs = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a load racing with a change is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    PublicDeckCatalogCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the cached JSON of a catalog view, loading and serializing it on a
+     * miss.
+     *
+     * @param view      the representation of the decks.
+     * @param subjectId the subject to list, or null for the whole catalog.
+     * @param loader    loads the decks to serialize.
+     * @return the JSON body.
+     */
+    byte[] get(View view, Long subjectId, Supplier<?> loader) {
+        CatalogKey key = new CatalogKey(view, subjectId);
+        CachedCatalog cached = catalogs.get(key);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.json();
+        }
+
+        long loadGeneration = generation.get();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize public decks", e);
+        }
+        if (generation.get() == loadGeneration) {
+            catalogs.put(key, new CachedCatalog(json, System.currentTimeMillis() + ttlSeconds * 1000));
+        }
+        return json;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCatalogChanged(PublicCatalogChangedEvent event) {
+        generation.incrementAndGet();
+        catalogs.keySet().removeIf(key -> key.subjectId() == null
+                || event.subjectIds().contains(key.subjectId()));
+        logger.debug("Invalidated public catalog for subjects {}", event.subjectIds());
+    }
+
+    private record CatalogKey(View view, Long subjectId) {
+    }
+
+    private record CachedCatalog(byte[] json, long expiresAt) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends revision answers to revision_answers off the request thread. Answers
+ * wait in a bounded queue and are written with batched inserts on a timer,
+ * whenever a full batch is waiting, and on shutdown. Answers arriving while the
+ * queue is full are dropped and counted rather than slowing the answer down.
+ */
+@Component
+class RevisionAnswerLog {
+    private static final Logger logger = LoggerFactory.getLogger(RevisionAnswerLog.class);
+
+    // Skips answers whose revision or card was deleted meanwhile instead of failing the batch
+    private static final String INSERT_SQL = "INSERT INTO revision_answers "
+            + "(revision_id, flashcard_id, correct, latency_ms, answered_at) "
+            + "SELECT ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM revisions WHERE id = ?) "
+            + "AND EXISTS (SELECT 1 FROM flashcards WHERE id = ?)";
+
+    record LoggedAnswer(Long revisionId, Long flashcardId, boolean correct, Integer latencyMs,
+            LocalDateTime answeredAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    private final BlockingQueue<LoggedAnswer> queue;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revision-answer-log-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    RevisionAnswerLog(JdbcTemplate jdbcTemplate,
+            @Value("${revision.answer-log.capacity:10000}") int capacity,
+            @Value("${revision.answer-log.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queues an answer for writing. Inside a transaction the answer is only
+     * queued once the transaction commits.
+     *
+     * @param answer the answer.
+     */
+    void append(LoggedAnswer answer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appendNow(answer);
+                }
+            });
+        } else {
+            appendNow(answer);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revision.answer-log.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        long droppedSinceLastFlush = dropped.getAndSet(0);
+        if (droppedSinceLastFlush > 0) {
+            logger.warn("Answer log queue was full, dropped {} answers", droppedSinceLastFlush);
+        }
+
+        List<LoggedAnswer> drained = new ArrayList<>(batchSize);
+        while (queue.drainTo(drained, batchSize) > 0) {
+            write(drained);
+            drained.clear();
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void appendNow(LoggedAnswer answer) {
+        if (!queue.offer(answer)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    private void write(List<LoggedAnswer> answers) {
+        List<Object[]> batch = new ArrayList<>(answers.size());
+        answers.forEach(answer -> batch.add(new Object[] {
+                answer.revisionId(),
+                answer.flashcardId(),
+                answer.correct(),
+                answer.latencyMs(),
+                Timestamp.valueOf(answer.answeredAt()),
+                answer.revisionId(),
+                answer.flashcardId() }));
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            logger.debug("Logged {} revision answers", answers.size());
+        } catch (Exception e) {
+            // The log is not a source of truth, so a failed batch is not retried
+            logger.error("Failed to log {} revision answers: {}", answers.size(), e.getMessage());
+        }
+    }
+}
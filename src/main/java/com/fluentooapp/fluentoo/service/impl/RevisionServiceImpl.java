@@ -2,23 +2,37 @@ package com.fluentooapp.fluentoo.service.impl;
 
 import com.fluentooapp.fluentoo.entity.*;
 import com.fluentooapp.fluentoo.repository.*;
-import com.fluentooapp.fluentoo.service.FlashCardService;
+import com.fluentooapp.fluentoo.security.CurrentUserProvider;
 import com.fluentooapp.fluentoo.service.RevisionService;
+import com.fluentooapp.fluentoo.service.UserCardStateService;
 import com.fluentooapp.fluentoo.service.UserService;
 import com.fluentooapp.fluentoo.service.UserStatsService;
+import com.fluentooapp.fluentoo.exception.BadRequestException;
 import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
 import com.fluentooapp.fluentoo.exception.UnauthorizedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 import java.util.*;
-import org.springframework.security.core.context.SecurityContextHolder;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import com.fluentooapp.fluentoo.dto.RevisionResponse;
+import com.fluentooapp.fluentoo.dto.AnswerBatchResponse;
 import com.fluentooapp.fluentoo.dto.AnswerRequest;
+import com.fluentooapp.fluentoo.dto.AnswerResponse;
+import com.fluentooapp.fluentoo.dto.DashboardDto;
+import com.fluentooapp.fluentoo.dto.DeckDueCount;
+import com.fluentooapp.fluentoo.dto.DueCardDto;
 import com.fluentooapp.fluentoo.dto.ProgressData;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,11 +41,33 @@ public class RevisionServiceImpl implements RevisionService {
 
     private static final Logger logger = LoggerFactory.getLogger(RevisionServiceImpl.class);
 
+    private static final int CORRECT_ANSWER_POINTS = 15;
+    private static final int WRONG_ANSWER_POINTS = -5;
+
+    // Lower bound of progress ranges without a start day
+    private static final LocalDateTime PROGRESS_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final RevisionRepository revisionRepository;
     private final DeckRepository deckRepository;
-    private final UserRepository userRepository;
-    private final FlashCardService flashCardService;
+    private final FlashCardRepository flashCardRepository;
     private final UserStatsService userStatsService;
+    private final CurrentUserProvider currentUserProvider;
+    private final DeckLaunchCounter deckLaunchCounter;
+    private final UserCardStateService userCardStateService;
+    private final RevisionSessionStore revisionSessionStore;
+    private final RevisionAnswerLog revisionAnswerLog;
+    private final AnswerGrader answerGrader;
+    private final UserDailyActivityRepository userDailyActivityRepository;
+    private final DashboardCache dashboardCache;
+
+    @Value("${revision.due.max-cards:20}")
+    private int maxDueCards;
+
+    @Value("${revision.answers.max-batch-size:200}")
+    private int maxAnswerBatchSize;
+
+    @Value("${dashboard.recent-revisions:10}")
+    private int recentRevisions;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -40,54 +76,77 @@ public class RevisionServiceImpl implements RevisionService {
             RevisionRepository revisionRepository,
             DeckRepository deckRepository,
             UserRepository userRepository,
-            FlashCardService flashCardService,
             FlashCardRepository flashCardRepository,
             UserService userService,
-            UserStatsService userStatsService) {
+            UserStatsService userStatsService,
+            CurrentUserProvider currentUserProvider,
+            DeckLaunchCounter deckLaunchCounter,
+            UserCardStateService userCardStateService,
+            RevisionSessionStore revisionSessionStore,
+            RevisionAnswerLog revisionAnswerLog,
+            AnswerGrader answerGrader,
+            UserDailyActivityRepository userDailyActivityRepository,
+            DashboardCache dashboardCache) {
         this.revisionRepository = revisionRepository;
         this.deckRepository = deckRepository;
-        this.userRepository = userRepository;
-        this.flashCardService = flashCardService;
+        this.flashCardRepository = flashCardRepository;
         this.userStatsService = userStatsService;
+        this.currentUserProvider = currentUserProvider;
+        this.deckLaunchCounter = deckLaunchCounter;
+        this.userCardStateService = userCardStateService;
+        this.revisionSessionStore = revisionSessionStore;
+        this.revisionAnswerLog = revisionAnswerLog;
+        this.answerGrader = answerGrader;
+        this.userDailyActivityRepository = userDailyActivityRepository;
+        this.dashboardCache = dashboardCache;
     }
 
     @Override
     @Transactional
-    public Revision newDeckRevision(Long deckId, String userEmail) {
+    public Revision newDeckRevision(Long deckId, String userEmail, RevisionMode mode) {
         // Fetch the deck and user
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        User user = currentUserProvider.getUser(userEmail);
 
         // Check if user has access to the deck
-        if (!deck.isPublic() && !deck.getCreatedBy().equals(user)) {
+        if (!deck.isPublic() && !deck.getCreatedBy().getId().equals(user.getId())) {
             throw new UnauthorizedException("You don't have access to this deck");
         }
 
         // Increment launch count
-        deck.setLaunchCount(deck.getLaunchCount() + 1);
-        deckRepository.save(deck);
+        deckLaunchCounter.increment(deckId);
 
         // Create a new revision
         Revision revision = new Revision();
         revision.setDeck(deck);
         revision.setUser(user);
+        revision.setMode(mode);
         revision.setCreatedAt(LocalDateTime.now());
 
-        // Fetch flashcards associated with the deck
-        List<FlashCard> flashcards = flashCardService.findFlashCardByDeckId(deckId);
-        if (flashcards.isEmpty()) {
-            throw new IllegalStateException("No flashcards found for this deck.");
+        // Fix the cards and their order for the whole revision
+        long[] cardOrder;
+        if (mode == RevisionMode.DUE) {
+            cardOrder = toArray(userCardStateService.findDueFlashCardIds(deckId, user.getId(),
+                    revision.getCreatedAt(), maxDueCards));
+            if (cardOrder.length == 0) {
+                throw new IllegalStateException("No flashcards are due for this deck.");
+            }
+        } else {
+            cardOrder = toArray(flashCardRepository.findIdsByDeckId(deckId));
+            if (cardOrder.length == 0) {
+                throw new IllegalStateException("No flashcards found for this deck.");
+            }
+            shuffle(cardOrder);
         }
-
-        // Set total count
-        revision.setTotalFlashcards(flashcards.size());
+        revision.setCardOrder(cardOrder);
+        revision.setTotalFlashcards(cardOrder.length);
         revision.setCorrectFlashcards(0);
 
         // Save the revision
         try {
             revision = revisionRepository.save(revision);
+            revisionSessionStore.openAfterCommit(RevisionSession.restore(revision, cardOrder));
             // Update decks studied count
             userStatsService.updateDeckStudied(user);
             return revision;
@@ -124,25 +183,26 @@ public class RevisionServiceImpl implements RevisionService {
 
             validateOwnership(revision);
 
-            // Get flashcards for the deck
-            List<FlashCard> flashcards = flashCardService.findFlashCardByDeckId(revision.getDeck().getId());
-            if (flashcards.isEmpty()) {
+            List<FlashCard> flashcards = findInOrder(withSession(revision, RevisionSession::getCardOrder));
+
+            RevisionResponse response = new RevisionResponse();
+            withSession(id, session -> {
+                reconcile(session, flashcards);
+                double percentage = score(session);
+                response.setId(session.getRevisionId());
+                response.setScore(percentage);
+                response.setTotalFlashcards(session.getTotalCount());
+                response.setCorrectFlashcards(session.getCorrectCount());
+                response.setAnsweredFlashcards(session.getAnsweredCount());
+                response.setPercentage(percentage);
+                response.setNextFlashcardId(session.nextCardId());
+                return null;
+            });
+
+            if (flashcards.isEmpty() && revision.getMode() != RevisionMode.DUE) {
                 logger.error("No flashcards found for deck: {}", revision.getDeck().getId());
                 throw new IllegalStateException("No flashcards found for this deck");
             }
-
-            // Calculate percentage
-            double percentage = 0;
-            if (revision.getTotalFlashcards() > 0) {
-                percentage = ((double) revision.getCorrectFlashcards() / revision.getTotalFlashcards()) * 100;
-            }
-
-            RevisionResponse response = new RevisionResponse();
-            response.setId(revision.getId());
-            response.setScore(revision.getScore());
-            response.setTotalFlashcards(revision.getTotalFlashcards());
-            response.setCorrectFlashcards(revision.getCorrectFlashcards());
-            response.setPercentage(percentage);
             response.setDeck(revision.getDeck());
             response.setFlashcards(flashcards);
 
@@ -155,29 +215,43 @@ public class RevisionServiceImpl implements RevisionService {
 
     @Override
     @Transactional
-    public RevisionResponse submitAnswer(Long id, AnswerRequest answerRequest) {
+    public AnswerResponse submitAnswer(Long id, AnswerRequest answerRequest) {
         try {
             logger.info("Submitting answer for revision {}: {}", id, answerRequest);
 
-            Revision revision = revisionRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Revision", "id", id));
-
-            validateOwnership(revision);
-
-            // Update correct flashcards count if answer is correct
-            if (answerRequest.getCorrect()) {
-                revision.setCorrectFlashcards(revision.getCorrectFlashcards() + 1);
-                // Add 15 points for correct answer
-                userStatsService.updateUserStats(revision.getUser(), 15, 1, 0);
-            } else {
-                // Subtract 5 points for wrong answer
-                userStatsService.updateUserStats(revision.getUser(), -5, 1, 0);
+            User user = getCurrentUser();
+            preloadAnswers(id, List.of(answerRequest));
+            List<RecordedAnswer> recorded = new ArrayList<>(1);
+            AnswerResponse response = withSession(id, session -> {
+                GradedAnswer graded = grade(session, answerRequest);
+                int points = 0;
+                boolean correct;
+                if (graded != null) {
+                    session.answer(graded.position(), graded.correct());
+                    correct = graded.correct();
+                    points = correct ? CORRECT_ANSWER_POINTS : WRONG_ANSWER_POINTS;
+                    recorded.add(new RecordedAnswer(session, graded.position(), correct,
+                            answerRequest.getLatencyMs()));
+                    revisionSessionStore.write(session);
+                    if (session.isComplete()) {
+                        revisionSessionStore.complete(id);
+                    }
+                } else {
+                    // A card already answered keeps its first answer and earns nothing
+                    int position = answerRequest.getFlashcardId() != null
+                            ? session.positionOf(answerRequest.getFlashcardId())
+                            : -1;
+                    correct = position >= 0 && session.isCorrect(position);
+                }
+                return new AnswerResponse(id, correct, session.getCorrectCount(), session.getTotalCount(),
+                        score(session), points, session.nextCardId());
+            });
+
+            if (!recorded.isEmpty()) {
+                userStatsService.updateUserStats(user, response.getPointsEarned(), 1, 0);
+                recordAnswers(recorded);
             }
-
-            // Save the revision
-            revisionRepository.save(revision);
-
-            return getRevision(id);
+            return response;
         } catch (Exception e) {
             logger.error("Error submitting answer: {}", e.getMessage());
             throw new IllegalStateException("Failed to submit answer", e);
@@ -185,42 +259,164 @@ public class RevisionServiceImpl implements RevisionService {
     }
 
     @Override
-    public List<ProgressData> getProgress() {
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    @Transactional(readOnly = true)
+    public String getFlashcardsVersion(Long id) {
+        Revision revision = revisionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Revision", "id", id));
+        validateOwnership(revision);
 
-        List<Revision> revisions = revisionRepository.findByUser(user);
-        List<ProgressData> progressDataList = new ArrayList<>();
+        // The card order is fixed per revision, so only edits of the deck change the list
+        Deck deck = revision.getDeck();
+        LocalDateTime changedAt = deck.getUpdatedAt() != null ? deck.getUpdatedAt() : deck.getCreatedAt();
+        return deck.getId() + "-" + changedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                + "-" + revision.getId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FlashCard> getRevisionFlashcards(Long id) {
+        List<FlashCard> flashcards = findInOrder(withSession(id, RevisionSession::getCardOrder));
+        withSession(id, session -> {
+            reconcile(session, flashcards);
+            return null;
+        });
+        return flashcards;
+    }
 
-        for (Revision revision : revisions) {
-            ProgressData progressData = new ProgressData();
-            progressData.setDate(revision.getCreatedAt());
-            progressData.setScore(revision.getScore());
-            progressData.setTotalCards(revision.getTotalFlashcards());
-            progressData.setCorrectCards(revision.getCorrectFlashcards());
-            progressDataList.add(progressData);
+    @Override
+    @Transactional
+    public AnswerBatchResponse submitAnswers(Long id, List<AnswerRequest> answers) {
+        if (answers == null || answers.isEmpty()) {
+            throw new BadRequestException("No answers to submit");
+        }
+        if (answers.size() > maxAnswerBatchSize) {
+            throw new BadRequestException("At most " + maxAnswerBatchSize + " answers can be submitted at once");
         }
+        if (answers.stream().anyMatch(answer -> answer.getSequence() == null)) {
+            throw new BadRequestException("Every answer needs a sequence number");
+        }
+
+        User user = getCurrentUser();
+        preloadAnswers(id, answers);
+        List<RecordedAnswer> recorded = new ArrayList<>();
+        // Holding the session serializes batches of the same revision, so a retry cannot apply twice
+        AnswerBatchResponse response = withSession(id, session -> {
+            TreeMap<Long, AnswerRequest> pending = new TreeMap<>();
+            for (AnswerRequest answer : answers) {
+                if (answer.getSequence() > session.getLastAnswerSequence()) {
+                    pending.putIfAbsent(answer.getSequence(), answer);
+                }
+            }
+            if (pending.isEmpty()) {
+                logger.info("Skipped {} already applied answers for revision {}", answers.size(), id);
+                return toBatchResponse(session, 0, answers.size(), 0);
+            }
+
+            // Rejects the whole batch before any answer is applied
+            for (AnswerRequest answer : pending.values()) {
+                if (answer.getFlashcardId() != null && session.positionOf(answer.getFlashcardId()) < 0) {
+                    throw new BadRequestException("Flashcard " + answer.getFlashcardId()
+                            + " does not belong to the revision");
+                }
+            }
+
+            int applied = 0;
+            int correct = 0;
+            for (AnswerRequest answer : pending.values()) {
+                // The card was found deleted by an earlier answer of the batch
+                if (answer.getFlashcardId() != null && session.positionOf(answer.getFlashcardId()) < 0) {
+                    continue;
+                }
+                GradedAnswer graded = grade(session, answer);
+                if (graded == null) {
+                    continue;
+                }
+                session.answer(graded.position(), graded.correct());
+                applied++;
+                if (graded.correct()) {
+                    correct++;
+                }
+                recorded.add(new RecordedAnswer(session, graded.position(), graded.correct(),
+                        answer.getLatencyMs()));
+            }
+            session.setLastAnswerSequence(pending.lastKey());
+            // Commits with the answers and their points, so a retry after a restart is still skipped
+            revisionSessionStore.write(session);
 
-        return progressDataList;
+            int points = correct * CORRECT_ANSWER_POINTS + (applied - correct) * WRONG_ANSWER_POINTS;
+            if (session.isComplete()) {
+                revisionSessionStore.complete(id);
+            }
+
+            int skipped = answers.size() - applied;
+            logger.info("Applied {} answers ({} skipped) for revision {}", applied, skipped, id);
+            return toBatchResponse(session, applied, skipped, points);
+        });
+
+        if (!recorded.isEmpty()) {
+            userStatsService.updateUserStats(user, response.getPointsEarned(), recorded.size(), 0);
+            recordAnswers(recorded);
+        }
+        return response;
     }
 
     @Override
-    public Map<String, Object> getDashboardData(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    @Transactional(readOnly = true)
+    public List<DeckDueCount> getDueCounts(List<Long> deckIds) {
+        User user = currentUserProvider.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        if (deckIds == null) {
+            return flashCardRepository.countDueByCreatedBy(user.getId(), now);
+        }
+        if (deckIds.isEmpty()) {
+            return List.of();
+        }
+        return flashCardRepository.countDueByDeckIds(deckIds, user.getId(), now);
+    }
 
-        Map<String, Object> dashboard = new HashMap<>();
+    @Override
+    @Transactional(readOnly = true)
+    public List<DueCardDto> getNextDueCards(int limit) {
+        User user = currentUserProvider.getCurrentUser();
+        return userCardStateService.getNextDueCards(user.getId(), Math.max(1, Math.min(limit, maxDueCards)));
+    }
 
-        // Get user stats
-        UserStats userStats = userStatsService.getUserStats(user);
-        dashboard.put("userStats", userStats);
+    @Override
+    @Transactional
+    public RevisionResponse completeRevision(Long id) {
+        RevisionResponse response = getRevision(id);
+        revisionSessionStore.complete(id);
+        return response;
+    }
 
-        // Get all revisions
-        List<Revision> revisions = revisionRepository.findByUser(user);
-        dashboard.put("revisions", revisions);
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProgressData> getProgress(LocalDate from, LocalDate to, ProgressBucket bucket) {
+        List<ProgressData> progress = new ArrayList<>();
+        streamProgress(getCurrentUser().getId(), from, to, bucket, progress::add);
+        return progress;
+    }
 
-        return dashboard;
+    @Override
+    @Transactional(readOnly = true)
+    public void streamProgress(Long userId, LocalDate from, LocalDate to, ProgressBucket bucket,
+            Consumer<ProgressData> consumer) {
+        LocalDate lastDay = to != null ? to : LocalDate.now();
+        if (from != null && from.isAfter(lastDay)) {
+            throw new BadRequestException("The start of the range must not be after its end");
+        }
+        LocalDateTime start = from != null ? from.atStartOfDay() : PROGRESS_EPOCH;
+        try (Stream<ProgressData> rows = revisionRepository.streamProgress(userId, start,
+                lastDay.plusDays(1).atStartOfDay(), bucket)) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardDto getDashboardData(String userEmail) {
+        User user = currentUserProvider.getUser(userEmail);
+        return dashboardCache.get(user.getId(), () -> loadDashboard(user));
     }
 
     @Override
@@ -228,10 +424,247 @@ public class RevisionServiceImpl implements RevisionService {
         return revisionRepository.findAllByUserEmailAndDeckId(userId, deckId);
     }
 
+    /**
+     * Runs an action on the session of a revision while holding it, restoring the
+     * session from the revision row when it is not in memory.
+     */
+    private <T> T withSession(Long id, Function<RevisionSession, T> action) {
+        while (true) {
+            RevisionSession session = revisionSessionStore.get(id);
+            if (session == null) {
+                Revision revision = revisionRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Revision", "id", id));
+                validateOwnership(revision);
+                session = revisionSessionStore.open(RevisionSession.restore(revision, loadCardOrder(revision)));
+            } else if (!session.getUserId().equals(getCurrentUser().getId())) {
+                throw new UnauthorizedException("You don't have access to this revision");
+            }
+            synchronized (session) {
+                // A closed session was written meanwhile; the next pass reloads it
+                if (!session.isClosed()) {
+                    return action.apply(session);
+                }
+            }
+        }
+    }
+
+    private <T> T withSession(Revision revision, Function<RevisionSession, T> action) {
+        if (revisionSessionStore.get(revision.getId()) == null) {
+            revisionSessionStore.open(RevisionSession.restore(revision, loadCardOrder(revision)));
+        }
+        return withSession(revision.getId(), action);
+    }
+
+    // Revisions started before card orders were stored get the current cards of the deck
+    private long[] loadCardOrder(Revision revision) {
+        if (revision.getCardOrder() != null) {
+            return revision.getCardOrder();
+        }
+        if (revision.getMode() == RevisionMode.DUE) {
+            return toArray(userCardStateService.findDueFlashCardIds(revision.getDeck().getId(),
+                    revision.getUser().getId(), revision.getCreatedAt(), revision.getTotalFlashcards()));
+        }
+        return toArray(flashCardRepository.findIdsByDeckId(revision.getDeck().getId()));
+    }
+
+    // Loads the expected answers of typed answers before the session is held, so grading reads no row under it
+    private void preloadAnswers(Long id, List<AnswerRequest> answers) {
+        List<Long> cardIds = new ArrayList<>();
+        int positional = 0;
+        for (AnswerRequest answer : answers) {
+            if (answer.getAnswer() == null) {
+                continue;
+            }
+            if (answer.getFlashcardId() != null) {
+                cardIds.add(answer.getFlashcardId());
+            } else {
+                positional++;
+            }
+        }
+        if (positional > 0) {
+            int count = positional;
+            cardIds.addAll(withSession(id, session -> session.nextCardIds(count)));
+        }
+        if (!cardIds.isEmpty()) {
+            answerGrader.preload(cardIds);
+        }
+    }
+
+    private record GradedAnswer(int position, boolean correct) {
+    }
+
+    /**
+     * Resolves the unanswered card an answer applies to and grades it. A card
+     * deleted since the revision started is dropped from the session rather than
+     * failing the answer, and an answer without a flashcard ID then moves on to
+     * the next card.
+     *
+     * @return the position and verdict, or null when the answer applies to no
+     *         unanswered card.
+     */
+    private GradedAnswer grade(RevisionSession session, AnswerRequest answer) {
+        while (true) {
+            int position = resolvePosition(session, answer.getFlashcardId());
+            if (position < 0 || session.isAnswered(position)) {
+                return null;
+            }
+            Boolean correct = isCorrect(session, position, answer);
+            if (correct != null) {
+                return new GradedAnswer(position, correct);
+            }
+            if (answer.getFlashcardId() != null) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Typed answers are graded here; cards flipped and self-assessed keep the
+     * client's verdict.
+     *
+     * @return the verdict, or null when the card was deleted and dropped from the
+     *         session.
+     */
+    private Boolean isCorrect(RevisionSession session, int position, AnswerRequest answer) {
+        if (answer.getAnswer() == null) {
+            return answer.getCorrect();
+        }
+        long cardId = session.getCardOrder()[position];
+        try {
+            return answerGrader.grade(cardId, answer.getAnswer());
+        } catch (ResourceNotFoundException e) {
+            logger.info("Flashcard {} was deleted during revision {}, leaving it out", cardId,
+                    session.getRevisionId());
+            session.removeCards(removed -> removed == cardId);
+            if (session.isComplete()) {
+                revisionSessionStore.complete(session.getRevisionId());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An answer applied to a session, recorded once the session is released. A
+     * card is answered once per revision, so answers to the same revision can be
+     * recorded in any order.
+     */
+    private record RecordedAnswer(Long revisionId, Long userId, Long cardId, boolean correct, Integer latencyMs,
+            LocalDateTime answeredAt) {
+
+        private RecordedAnswer(RevisionSession session, int position, boolean correct, Integer latencyMs) {
+            this(session.getRevisionId(), session.getUserId(), session.getCardOrder()[position], correct, latencyMs,
+                    LocalDateTime.now());
+        }
+    }
+
+    // Schedules the cards and appends the answers to the log, outside the session since scheduling reads the
+    // stored card state
+    private void recordAnswers(List<RecordedAnswer> answers) {
+        for (RecordedAnswer answer : answers) {
+            userCardStateService.recordAnswer(answer.revisionId(), answer.userId(), answer.cardId(),
+                    answer.correct());
+            revisionAnswerLog.append(new RevisionAnswerLog.LoggedAnswer(answer.revisionId(), answer.cardId(),
+                    answer.correct(), answer.latencyMs(), answer.answeredAt()));
+        }
+    }
+
+    /**
+     * Returns the position of the answered card, or of the first unanswered card
+     * for answers without a flashcard ID; -1 when no card is left.
+     */
+    private int resolvePosition(RevisionSession session, Long flashcardId) {
+        if (flashcardId == null) {
+            return session.nextPosition();
+        }
+        int position = session.positionOf(flashcardId);
+        if (position < 0) {
+            throw new BadRequestException("Flashcard " + flashcardId + " does not belong to the revision");
+        }
+        return position;
+    }
+
+    /**
+     * Drops the cards deleted since the revision started from its session, so
+     * answers without a flashcard ID apply to the next card the learner is
+     * shown. Completes the revision when only answered cards are left.
+     *
+     * @param flashcards the cards of the session still present, loaded outside
+     *                   the session.
+     */
+    private void reconcile(RevisionSession session, List<FlashCard> flashcards) {
+        Set<Long> present = new HashSet<>();
+        flashcards.forEach(flashCard -> present.add(flashCard.getId()));
+        if (session.removeCards(cardId -> !present.contains(cardId)) && session.isComplete()) {
+            revisionSessionStore.complete(session.getRevisionId());
+        }
+    }
+
+    // Cards deleted since the revision started are left out
+    private List<FlashCard> findInOrder(long[] cardOrder) {
+        Map<Long, FlashCard> byId = new HashMap<>();
+        flashCardRepository.findAllById(Arrays.stream(cardOrder).boxed().toList())
+                .forEach(flashCard -> byId.put(flashCard.getId(), flashCard));
+        List<FlashCard> flashcards = new ArrayList<>(byId.size());
+        for (long cardId : cardOrder) {
+            FlashCard flashCard = byId.get(cardId);
+            if (flashCard != null) {
+                flashcards.add(flashCard);
+            }
+        }
+        return flashcards;
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void shuffle(long[] cardOrder) {
+        Random random = ThreadLocalRandom.current();
+        for (int i = cardOrder.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = cardOrder[i];
+            cardOrder[i] = cardOrder[j];
+            cardOrder[j] = swap;
+        }
+    }
+
+    private static double score(RevisionSession session) {
+        int total = session.getTotalCount();
+        return total > 0 ? ((double) session.getCorrectCount() / total) * 100 : 0;
+    }
+
+    private DashboardDto loadDashboard(User user) {
+        UserStats stats = userStatsService.findUserStats(user);
+        LocalDate today = LocalDate.now();
+        int todayPoints = userDailyActivityRepository.findById(new UserDailyActivityId(user.getId(), today))
+                .map(UserDailyActivity::getPoints)
+                .orElse(0);
+
+        // The stored streak is only brought up to date by the next activity
+        LocalDateTime lastActive = stats.getLastUpdated();
+        boolean streakAlive = lastActive != null && !lastActive.toLocalDate().isBefore(today.minusDays(1));
+        int goal = stats.getDailyPointsGoal();
+
+        return new DashboardDto(
+                streakAlive ? stats.getStudyStreak() : 0,
+                stats.getPointsEarned(),
+                stats.getCardsReviewed(),
+                stats.getDecksStudied(),
+                stats.getMatchingGamesCompleted(),
+                stats.getMatchingGamePoints(),
+                todayPoints,
+                goal,
+                goal > 0 ? Math.min(100.0, todayPoints * 100.0 / goal) : 0,
+                revisionRepository.findRecentByUserId(user.getId(), Limit.of(recentRevisions)));
+    }
+
+    private AnswerBatchResponse toBatchResponse(RevisionSession session, int applied, int skipped, int points) {
+        return new AnswerBatchResponse(session.getRevisionId(), session.getLastAnswerSequence(), applied, skipped,
+                session.getCorrectCount(), session.getTotalCount(), score(session), points);
+    }
+
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+        return currentUserProvider.getCurrentUser();
     }
 
     private void validateOwnership(Revision revision) {
@@ -0,0 +1,220 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.entity.Revision;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory state of a revision in progress: the flashcard ids in study order
+ * and, per position in that order, whether the card was answered and whether
+ * the answer was correct. Callers synchronize on the session and must not use
+ * it once {@link #isClosed()} returns true.
+ */
+final class RevisionSession {
+
+    private final Long revisionId;
+    private final Long userId;
+    private long[] cardOrder;
+    private BitSet answered;
+    private BitSet correct;
+    private int correctCount;
+    private long lastAnswerSequence;
+    private long lastTouched = System.currentTimeMillis();
+    private boolean closed;
+
+    private RevisionSession(Long revisionId, Long userId, long[] cardOrder, BitSet answered, BitSet correct,
+            int correctCount, long lastAnswerSequence) {
+        this.revisionId = revisionId;
+        this.userId = userId;
+        this.cardOrder = cardOrder;
+        this.answered = answered;
+        this.correct = correct;
+        this.correctCount = correctCount;
+        this.lastAnswerSequence = lastAnswerSequence;
+    }
+
+    /**
+     * Restores the session of a revision from its row.
+     *
+     * @param revision  the revision.
+     * @param cardOrder the card order, used when the row predates stored orders.
+     * @return the session.
+     */
+    static RevisionSession restore(Revision revision, long[] cardOrder) {
+        BitSet answered = revision.getAnsweredCards() != null ? BitSet.valueOf(revision.getAnsweredCards())
+                : new BitSet(cardOrder.length);
+        BitSet correct = revision.getCorrectCards() != null ? BitSet.valueOf(revision.getCorrectCards())
+                : new BitSet(cardOrder.length);
+        // Older rows only kept the counter, so it stays the source of the score
+        return new RevisionSession(revision.getId(), revision.getUser().getId(), cardOrder, answered, correct,
+                revision.getCorrectFlashcards(), revision.getLastAnswerSequence());
+    }
+
+    Long getRevisionId() {
+        return revisionId;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    long[] getCardOrder() {
+        return cardOrder;
+    }
+
+    /**
+     * Drops cards from the study order, such as cards deleted since the revision
+     * started, so positions keep matching the cards the learner is shown. The
+     * answers to the remaining cards are kept.
+     *
+     * @param removed whether the card with an ID is dropped.
+     * @return whether any card was dropped.
+     */
+    boolean removeCards(LongPredicate removed) {
+        BitSet kept = new BitSet(cardOrder.length);
+        for (int i = 0; i < cardOrder.length; i++) {
+            if (!removed.test(cardOrder[i])) {
+                kept.set(i);
+            }
+        }
+        if (kept.cardinality() == cardOrder.length) {
+            return false;
+        }
+
+        long[] keptOrder = new long[kept.cardinality()];
+        BitSet keptAnswered = new BitSet(keptOrder.length);
+        BitSet keptCorrect = new BitSet(keptOrder.length);
+        int next = 0;
+        for (int i = kept.nextSetBit(0); i >= 0; i = kept.nextSetBit(i + 1), next++) {
+            keptOrder[next] = cardOrder[i];
+            keptAnswered.set(next, answered.get(i));
+            keptCorrect.set(next, correct.get(i));
+        }
+        int droppedCorrect = correct.cardinality() - keptCorrect.cardinality();
+        cardOrder = keptOrder;
+        answered = keptAnswered;
+        correct = keptCorrect;
+        correctCount = Math.max(0, correctCount - droppedCorrect);
+        return true;
+    }
+
+    /**
+     * Returns the position of a card in the study order.
+     *
+     * @param cardId the ID of the flashcard.
+     * @return the position, or -1 when the card is not part of the revision.
+     */
+    int positionOf(long cardId) {
+        for (int i = 0; i < cardOrder.length; i++) {
+            if (cardOrder[i] == cardId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first position not answered yet, or -1 when every card was.
+     */
+    int nextPosition() {
+        int next = answered.nextClearBit(0);
+        return next < cardOrder.length ? next : -1;
+    }
+
+    Long nextCardId() {
+        int next = nextPosition();
+        return next >= 0 ? cardOrder[next] : null;
+    }
+
+    /**
+     * Returns the IDs of the first cards not answered yet, in study order.
+     *
+     * @param limit the largest number of IDs.
+     */
+    List<Long> nextCardIds(int limit) {
+        List<Long> cardIds = new ArrayList<>(Math.min(limit, cardOrder.length));
+        for (int i = answered.nextClearBit(0); i < cardOrder.length && cardIds.size() < limit;
+                i = answered.nextClearBit(i + 1)) {
+            cardIds.add(cardOrder[i]);
+        }
+        return cardIds;
+    }
+
+    /**
+     * Records the answer to the card at a position.
+     *
+     * @return false when the card was already answered, leaving the first answer
+     *         in place.
+     */
+    boolean answer(int position, boolean isCorrect) {
+        touch();
+        if (answered.get(position)) {
+            return false;
+        }
+        answered.set(position);
+        if (isCorrect) {
+            correct.set(position);
+            correctCount++;
+        }
+        return true;
+    }
+
+    boolean isAnswered(int position) {
+        return answered.get(position);
+    }
+
+    boolean isCorrect(int position) {
+        return correct.get(position);
+    }
+
+    int getAnsweredCount() {
+        return answered.cardinality();
+    }
+
+    int getCorrectCount() {
+        return correctCount;
+    }
+
+    int getTotalCount() {
+        return cardOrder.length;
+    }
+
+    boolean isComplete() {
+        return getAnsweredCount() >= cardOrder.length;
+    }
+
+    long getLastAnswerSequence() {
+        return lastAnswerSequence;
+    }
+
+    void setLastAnswerSequence(long lastAnswerSequence) {
+        this.lastAnswerSequence = lastAnswerSequence;
+    }
+
+    byte[] answeredBytes() {
+        return answered.toByteArray();
+    }
+
+    byte[] correctBytes() {
+        return correct.toByteArray();
+    }
+
+    long getLastTouched() {
+        return lastTouched;
+    }
+
+    void touch() {
+        lastTouched = System.currentTimeMillis();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
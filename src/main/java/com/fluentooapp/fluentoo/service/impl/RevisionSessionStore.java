@@ -0,0 +1,220 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded store of the {@link RevisionSession}s in progress. Answers are
+ * written to the revision row in the transaction that applies them, so a
+ * session restored after a crash never applies a batch twice. A session is
+ * written again when the revision completes or the session is evicted for
+ * being idle, for exceeding the capacity, or on shutdown; its card schedules
+ * are written along with it. Closing a session publishes a
+ * {@link UserActivityEvent}, as the revision counts shown to its user change.
+ */
+@Component
+class RevisionSessionStore {
+    private static final Logger logger = LoggerFactory.getLogger(RevisionSessionStore.class);
+
+    private static final String PERSIST_SQL = "UPDATE revisions SET total_flashcards = ?, correct_flashcards = ?, "
+            + "last_answer_seq = ?, card_order = ?, answered_cards = ?, correct_cards = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCardStateBuffer userCardStateBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${revision.session.max-sessions:10000}")
+    private int maxSessions;
+
+    @Value("${revision.session.idle-timeout-ms:900000}")
+    private long idleTimeoutMs;
+
+    private final Map<Long, RevisionSession> sessions = new ConcurrentHashMap<>();
+
+    RevisionSessionStore(JdbcTemplate jdbcTemplate, UserCardStateBuffer userCardStateBuffer,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCardStateBuffer = userCardStateBuffer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    RevisionSession get(Long revisionId) {
+        return sessions.get(revisionId);
+    }
+
+    /**
+     * Adds a session unless one is already held for its revision.
+     *
+     * @return the session held for the revision.
+     */
+    RevisionSession open(RevisionSession session) {
+        RevisionSession existing = sessions.putIfAbsent(session.getRevisionId(), session);
+        if (existing != null) {
+            return existing;
+        }
+        if (sessions.size() > maxSessions) {
+            evictLeastRecentlyUsed();
+        }
+        return session;
+    }
+
+    /**
+     * Adds the session of a new revision once the current transaction commits,
+     * or right away outside of one, so a rolled back revision leaves no session
+     * behind and a session is never written before its row exists.
+     */
+    void openAfterCommit(RevisionSession session) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    open(session);
+                }
+            });
+        } else {
+            open(session);
+        }
+    }
+
+    /**
+     * Writes and removes the session of a revision once the current transaction
+     * commits, or right away outside of one.
+     */
+    void complete(Long revisionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    close(revisionId);
+                }
+            });
+            // Published now, after the close is registered so its listeners run once the session is written;
+            // an event published from afterCommit would never be delivered
+            RevisionSession session = sessions.get(revisionId);
+            if (session != null) {
+                eventPublisher.publishEvent(new UserActivityEvent(session.getUserId()));
+            }
+        } else {
+            RevisionSession session = sessions.get(revisionId);
+            if (session != null) {
+                closeAndNotify(session);
+            }
+        }
+    }
+
+    /**
+     * Writes the answers applied to a session in the current transaction. If it
+     * rolls back, the session is dropped without being written, so the next
+     * request restores it from the row. Called while holding the session.
+     */
+    void write(RevisionSession session) {
+        persist(session);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        discard(session);
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revision.session.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMs;
+        sessions.values().forEach(session -> {
+            boolean idle;
+            synchronized (session) {
+                idle = session.getLastTouched() < idleSince;
+            }
+            if (idle) {
+                closeAndNotify(session);
+            }
+        });
+    }
+
+    @PreDestroy
+    void drain() {
+        sessions.values().forEach(this::close);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        sessions.values().stream()
+                .min(Comparator.comparingLong(RevisionSession::getLastTouched))
+                .ifPresent(this::closeAndNotify);
+    }
+
+    private void closeAndNotify(RevisionSession session) {
+        if (close(session)) {
+            eventPublisher.publishEvent(new UserActivityEvent(session.getUserId()));
+        }
+    }
+
+    private void close(Long revisionId) {
+        RevisionSession session = sessions.get(revisionId);
+        if (session != null) {
+            close(session);
+        }
+    }
+
+    // Writes while holding the session, so callers waiting on it reload the written row
+    private boolean close(RevisionSession session) {
+        synchronized (session) {
+            if (session.isClosed()) {
+                return false;
+            }
+            try {
+                persist(session);
+                logger.debug("Wrote session of revision {}: {}/{} answered", session.getRevisionId(),
+                        session.getAnsweredCount(), session.getTotalCount());
+            } catch (Exception e) {
+                // Stays in memory and is retried by the next sweep
+                logger.error("Failed to write session of revision {}, keeping it open: {}", session.getRevisionId(),
+                        e.getMessage());
+                return false;
+            }
+            session.close();
+            sessions.remove(session.getRevisionId(), session);
+        }
+        userCardStateBuffer.flush(session.getRevisionId());
+        return true;
+    }
+
+    private void discard(RevisionSession session) {
+        synchronized (session) {
+            if (!session.isClosed()) {
+                session.close();
+                sessions.remove(session.getRevisionId(), session);
+                logger.debug("Dropped session of revision {} after a rollback", session.getRevisionId());
+            }
+        }
+    }
+
+    private void persist(RevisionSession session) {
+        Long[] cardOrder = Arrays.stream(session.getCardOrder()).boxed().toArray(Long[]::new);
+        jdbcTemplate.update(PERSIST_SQL, ps -> {
+            ps.setInt(1, session.getTotalCount());
+            ps.setInt(2, session.getCorrectCount());
+            ps.setLong(3, session.getLastAnswerSequence());
+            ps.setArray(4, ps.getConnection().createArrayOf("bigint", cardOrder));
+            ps.setBytes(5, session.answeredBytes());
+            ps.setBytes(6, session.correctBytes());
+            ps.setLong(7, session.getRevisionId());
+        });
+    }
+}
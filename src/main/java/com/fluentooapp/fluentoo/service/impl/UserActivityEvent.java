@@ -0,0 +1,10 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+/**
+ * Published when a user's stats change, so views derived from them, like the
+ * cached dashboard, are rebuilt.
+ *
+ * @param userId the ID of the user.
+ */
+record UserActivityEvent(Long userId) {
+}
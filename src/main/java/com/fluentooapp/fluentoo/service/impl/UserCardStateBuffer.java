@@ -0,0 +1,143 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the card schedules produced during a revision until the session ends,
+ * then writes them with one batched upsert. Sessions that stop receiving
+ * answers are written after an idle timeout, and all sessions on shutdown.
+ */
+@Component
+class UserCardStateBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(UserCardStateBuffer.class);
+
+    // Skips cards deleted while the session was open instead of failing the batch
+    private static final String UPSERT_SQL = "INSERT INTO user_card_state (user_id, card_id, envelope, due_at) "
+            + "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM flashcards WHERE id = ?) "
+            + "ON CONFLICT (user_id, card_id) DO UPDATE SET envelope = EXCLUDED.envelope, due_at = EXCLUDED.due_at";
+
+    record PendingState(int envelope, LocalDateTime dueAt) {
+    }
+
+    private static final class Session {
+        private final Long userId;
+        private final Map<Long, PendingState> states = new LinkedHashMap<>();
+        private long lastTouched = System.currentTimeMillis();
+
+        private Session(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${revision.card-state.idle-flush-ms:600000}")
+    private long idleFlushMs;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+
+    UserCardStateBuffer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the schedule of a card answered in the revision and not yet
+     * written.
+     *
+     * @param revisionId the ID of the revision.
+     * @param cardId     the ID of the flashcard.
+     * @return the pending schedule, or null.
+     */
+    PendingState pending(Long revisionId, Long cardId) {
+        Session session = sessions.get(revisionId);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            return session.states.get(cardId);
+        }
+    }
+
+    /**
+     * Records the new schedule of a card answered in the revision.
+     */
+    void put(Long revisionId, Long userId, Long cardId, PendingState state) {
+        while (true) {
+            Session session = sessions.computeIfAbsent(revisionId, id -> new Session(userId));
+            synchronized (session) {
+                // A concurrent flush may have removed this session in the meantime
+                if (sessions.get(revisionId) != session) {
+                    continue;
+                }
+                session.states.put(cardId, state);
+                session.lastTouched = System.currentTimeMillis();
+                return;
+            }
+        }
+    }
+
+    void flush(Long revisionId) {
+        Session session = sessions.remove(revisionId);
+        if (session != null) {
+            write(revisionId, session);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revision.card-state.sweep-interval-ms:60000}")
+    public void flushIdle() {
+        long idleSince = System.currentTimeMillis() - idleFlushMs;
+        sessions.forEach((revisionId, session) -> {
+            boolean idle;
+            synchronized (session) {
+                idle = session.lastTouched < idleSince;
+            }
+            if (idle && sessions.remove(revisionId, session)) {
+                write(revisionId, session);
+            }
+        });
+    }
+
+    @PreDestroy
+    void drain() {
+        sessions.keySet().forEach(this::flush);
+    }
+
+    private void write(Long revisionId, Session session) {
+        List<Object[]> batch;
+        synchronized (session) {
+            batch = new ArrayList<>(session.states.size());
+            session.states.forEach((cardId, state) -> batch.add(new Object[] {
+                    session.userId, cardId, state.envelope(), Timestamp.valueOf(state.dueAt()), cardId }));
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            logger.debug("Wrote {} card schedules for revision {}", batch.size(), revisionId);
+        } catch (Exception e) {
+            logger.error("Failed to write card schedules for revision {}, keeping them pending: {}", revisionId,
+                    e.getMessage());
+            // Answers recorded since the session was removed are newer and win
+            Session restored = sessions.computeIfAbsent(revisionId, id -> new Session(session.userId));
+            synchronized (restored) {
+                session.states.forEach(restored.states::putIfAbsent);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.DueCardDto;
+import com.fluentooapp.fluentoo.entity.UserCardState;
+import com.fluentooapp.fluentoo.entity.UserCardStateId;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.repository.UserCardStateRepository;
+import com.fluentooapp.fluentoo.service.FlashCardService;
+import com.fluentooapp.fluentoo.service.UserCardStateService;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class UserCardStateServiceImpl implements UserCardStateService {
+
+    private static final int MAX_ENVELOPE = 5;
+
+    private final UserCardStateRepository userCardStateRepository;
+    private final FlashCardRepository flashCardRepository;
+    private final FlashCardService flashCardService;
+    private final UserCardStateBuffer userCardStateBuffer;
+
+    public UserCardStateServiceImpl(UserCardStateRepository userCardStateRepository,
+            FlashCardRepository flashCardRepository, FlashCardService flashCardService,
+            UserCardStateBuffer userCardStateBuffer) {
+        this.userCardStateRepository = userCardStateRepository;
+        this.flashCardRepository = flashCardRepository;
+        this.flashCardService = flashCardService;
+        this.userCardStateBuffer = userCardStateBuffer;
+    }
+
+    @Override
+    public List<Long> findDueFlashCardIds(Long deckId, Long userId, LocalDateTime dueBy, int limit) {
+        return flashCardRepository.findDueIdsByDeckId(deckId, userId, dueBy, Limit.of(limit));
+    }
+
+    @Override
+    public long countDueFlashCards(Long deckId, Long userId, LocalDateTime dueBy) {
+        return flashCardRepository.countDueByDeckId(deckId, userId, dueBy);
+    }
+
+    @Override
+    public void recordAnswer(Long revisionId, Long userId, Long cardId, boolean correct) {
+        // A card the user never answered starts in envelope 1, as a new flashcard does
+        int envelope = 1;
+        LocalDateTime dueAt = null;
+
+        UserCardStateBuffer.PendingState pending = userCardStateBuffer.pending(revisionId, cardId);
+        if (pending != null) {
+            envelope = pending.envelope();
+            dueAt = pending.dueAt();
+        } else {
+            Optional<UserCardState> stored = userCardStateRepository
+                    .findById(new UserCardStateId(userId, cardId));
+            if (stored.isPresent()) {
+                envelope = stored.get().getEnvelope();
+                dueAt = stored.get().getDueAt();
+            }
+        }
+
+        UserCardStateBuffer.PendingState next;
+        if (correct && dueAt != null && dueAt.isAfter(LocalDateTime.now())) {
+            // Reviewing a card ahead of schedule does not earn a promotion
+            next = new UserCardStateBuffer.PendingState(envelope, dueAt);
+        } else {
+            int nextEnvelope = correct ? Math.min(envelope + 1, MAX_ENVELOPE) : 1;
+            next = new UserCardStateBuffer.PendingState(nextEnvelope,
+                    flashCardService.calculateRevisionTime(nextEnvelope));
+        }
+
+        userCardStateBuffer.put(revisionId, userId, cardId, next);
+    }
+
+    @Override
+    public void completeRevision(Long revisionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCardStateBuffer.flush(revisionId);
+                }
+            });
+        } else {
+            userCardStateBuffer.flush(revisionId);
+        }
+    }
+
+    @Override
+    public List<DueCardDto> getNextDueCards(Long userId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DueCardDto> scheduled = userCardStateRepository.findNextDue(userId, now, Limit.of(limit));
+        List<DueCardDto> unscheduled = flashCardRepository.findUnscheduledByCreatedBy(userId, now, Limit.of(limit));
+
+        // Both lists are sorted by due time; merge them up to the limit
+        List<DueCardDto> due = new ArrayList<>(Math.min(limit, scheduled.size() + unscheduled.size()));
+        int i = 0;
+        int j = 0;
+        while (due.size() < limit && (i < scheduled.size() || j < unscheduled.size())) {
+            if (j == unscheduled.size() || (i < scheduled.size()
+                    && !scheduled.get(i).dueAt().isAfter(unscheduled.get(j).dueAt()))) {
+                due.add(scheduled.get(i++));
+            } else {
+                due.add(unscheduled.get(j++));
+            }
+        }
+        return due;
+    }
+}
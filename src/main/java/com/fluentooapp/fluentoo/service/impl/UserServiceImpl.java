@@ -4,7 +4,11 @@ import com.fluentooapp.fluentoo.dto.UserDto;
 import com.fluentooapp.fluentoo.entity.User;
 import com.fluentooapp.fluentoo.entity.UserStats;
 import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.security.ClaimsPrincipal;
+import com.fluentooapp.fluentoo.security.TokenVersionCache;
+import com.fluentooapp.fluentoo.security.UserPrincipalCache;
 import com.fluentooapp.fluentoo.service.UserService;
+import com.fluentooapp.fluentoo.service.UserStatsService;
 import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -13,6 +17,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,9 +30,18 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private UserStatsService userStatsService;
+
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
+	@Autowired
+	private UserPrincipalCache userPrincipalCache;
+
+	@Autowired
+	private TokenVersionCache tokenVersionCache;
+
 	@Override
 	@Transactional
 	public User saveUser(UserDto userDto) {
@@ -84,11 +99,18 @@ public class UserServiceImpl implements UserService {
 	@Override
 	public void updateUser(User user) {
 		userRepository.save(user);
+		userPrincipalCache.evict(user.getEmail());
 	}
 
 	@Override
 	public User getAuthUser() {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getPrincipal() instanceof User user) {
+			return user;
+		}
+		if (authentication != null && authentication.getPrincipal() instanceof ClaimsPrincipal principal) {
+			return userRepository.getReferenceById(principal.userId());
+		}
 		if (authentication != null && authentication.getPrincipal() instanceof UserDetails) {
 			String email = ((UserDetails) authentication.getPrincipal()).getUsername();
 			return userRepository.findByEmail(email)
@@ -98,22 +120,20 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public void increaseScore() {
 		User user = getAuthUser();
-		if (user != null && user.getUserStats() != null) {
-			user.getUserStats().setPointsEarned(
-					user.getUserStats().getPointsEarned() + 15);
-			userRepository.save(user);
+		if (user != null) {
+			userStatsService.updateUserStats(user, 15, 0, 0);
 		}
 	}
 
 	@Override
+	@Transactional
 	public void decreaseScore() {
 		User user = getAuthUser();
-		if (user != null && user.getUserStats() != null) {
-			user.getUserStats().setPointsEarned(
-					user.getUserStats().getPointsEarned() - 5);
-			userRepository.save(user);
+		if (user != null) {
+			userStatsService.updateUserStats(user, -5, 0, 0);
 		}
 	}
 
@@ -136,4 +156,28 @@ public class UserServiceImpl implements UserService {
 		// TODO Auto-generated method stub
 		throw new UnsupportedOperationException("Unimplemented method 'updateDeckStudied'");
 	}
+
+	@Override
+	@Transactional
+	public void revokeTokens(User user) {
+		userRepository.incrementTokenVersion(user.getId());
+		// Evicted once the new version is visible, or a request could cache the old one again
+		Long userId = user.getId();
+		String email = user.getEmail();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictTokens(userId, email);
+				}
+			});
+		} else {
+			evictTokens(userId, email);
+		}
+	}
+
+	private void evictTokens(Long userId, String email) {
+		tokenVersionCache.evict(userId);
+		userPrincipalCache.evict(email);
+	}
 }
@@ -0,0 +1,38 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+/**
+ * Pending increments to the counters of a single user_stats row.
+ */
+class UserStatsDelta {
+    int pointsEarned;
+    int cardsReviewed;
+    int decksStudied;
+    int matchingGamesCompleted;
+    int matchingGamePoints;
+    int totalMatchesFound;
+    int totalMatchingAttempts;
+
+    static UserStatsDelta study(int pointsEarned, int cardsReviewed, int decksStudied) {
+        UserStatsDelta delta = new UserStatsDelta();
+        delta.pointsEarned = pointsEarned;
+        delta.cardsReviewed = cardsReviewed;
+        delta.decksStudied = decksStudied;
+        return delta;
+    }
+
+    void add(UserStatsDelta other) {
+        pointsEarned += other.pointsEarned;
+        cardsReviewed += other.cardsReviewed;
+        decksStudied += other.decksStudied;
+        matchingGamesCompleted += other.matchingGamesCompleted;
+        matchingGamePoints += other.matchingGamePoints;
+        totalMatchesFound += other.totalMatchesFound;
+        totalMatchingAttempts += other.totalMatchingAttempts;
+    }
+
+    UserStatsDelta copy() {
+        UserStatsDelta copy = new UserStatsDelta();
+        copy.add(this);
+        return copy;
+    }
+}
@@ -1,23 +1,34 @@
 package com.fluentooapp.fluentoo.service.impl;
 
+import com.fluentooapp.fluentoo.dto.ChartData;
 import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.entity.UserDailyActivity;
 import com.fluentooapp.fluentoo.entity.UserStats;
 import com.fluentooapp.fluentoo.entity.Revision;
 import com.fluentooapp.fluentoo.repository.UserStatsRepository;
 import com.fluentooapp.fluentoo.repository.RevisionRepository;
+import com.fluentooapp.fluentoo.repository.UserDailyActivityRepository;
 import com.fluentooapp.fluentoo.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +36,18 @@ public class UserStatsServiceImpl implements UserStatsService {
     private static final Logger logger = LoggerFactory.getLogger(UserStatsServiceImpl.class);
     private final UserStatsRepository userStatsRepository;
     private final RevisionRepository revisionRepository;
+    private final UserStatsWriteBuffer userStatsWriteBuffer;
+    private final UserDailyActivityRepository userDailyActivityRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${stats.activity.days:30}")
+    private int activityDays;
+
+    // Users whose study streak was brought up to date today; replaced, not grown, when the day changes
+    private volatile CheckedStreaks checkedStreaks = new CheckedStreaks(LocalDate.MIN, ConcurrentHashMap.newKeySet());
+
+    private record CheckedStreaks(LocalDate day, Set<Long> userIds) {
+    }
 
     @Override
     @Transactional
@@ -34,10 +57,18 @@ public class UserStatsServiceImpl implements UserStatsService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public UserStats findUserStats(User user) {
+        UserStats stats = userStatsRepository.findByUser(user)
+                .orElseGet(() -> initialUserStats(user));
+        return withPendingDeltas(user, stats);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats(User user) {
         try {
-            UserStats stats = getUserStats(user);
+            UserStats stats = findUserStats(user);
             Map<String, Object> dashboard = new HashMap<>();
 
             // Basic stats with null checks
@@ -77,12 +108,37 @@ public class UserStatsServiceImpl implements UserStatsService {
     @Transactional
     public Map<String, Object> getLearningActivity(User user) {
         try {
-            List<String> labels = new ArrayList<>();
-            List<Integer> values = new ArrayList<>();
+            int days = Math.max(1, Math.min(activityDays, 365));
+            LocalDate to = LocalDate.now();
+            LocalDate from = to.minusDays(days - 1);
+
+            Map<LocalDate, UserDailyActivity> byDay = new HashMap<>();
+            userDailyActivityRepository.findByUserIdAndDayBetween(user.getId(), from, to)
+                    .forEach(day -> byDay.put(day.getId().getDay(), day));
+
+            // Days without a row had no activity
+            List<String> labels = new ArrayList<>(days);
+            int[] cards = new int[days];
+            int[] points = new int[days];
+            int[] games = new int[days];
+            for (int i = 0; i < days; i++) {
+                LocalDate day = from.plusDays(i);
+                labels.add(day.toString());
+                UserDailyActivity dayActivity = byDay.get(day);
+                if (dayActivity != null) {
+                    cards[i] = dayActivity.getCards();
+                    points[i] = dayActivity.getPoints();
+                    games[i] = dayActivity.getGames();
+                }
+            }
 
             Map<String, Object> activity = new HashMap<>();
             activity.put("labels", labels);
-            activity.put("values", values);
+            activity.put("values", Arrays.stream(cards).boxed().toList());
+            activity.put("datasets", List.of(
+                    new ChartData("Cards reviewed", cards, "rgba(54,162,235,1)"),
+                    new ChartData("Points earned", points, "rgba(255,159,64,1)"),
+                    new ChartData("Matching games", games, "rgba(75,192,192,1)")));
             return activity;
         } catch (Exception e) {
             logger.error("Error getting learning activity: {}", e.getMessage());
@@ -97,25 +153,78 @@ public class UserStatsServiceImpl implements UserStatsService {
     @Override
     @Transactional
     public void updateUserStats(User user, int pointsEarned, int cardsReviewed, int decksStudied) {
-        UserStats stats = getUserStats(user);
+        bufferStudy(user, pointsEarned, cardsReviewed, decksStudied);
+        recordActivity(user, cardsReviewed, pointsEarned, 0);
+        eventPublisher.publishEvent(new UserActivityEvent(user.getId()));
+    }
 
-        // Update basic stats
-        stats.setPointsEarned(stats.getPointsEarned() + pointsEarned);
-        stats.setCardsReviewed(stats.getCardsReviewed() + cardsReviewed);
-        stats.setDecksStudied(stats.getDecksStudied() + decksStudied);
+    private void bufferStudy(User user, int pointsEarned, int cardsReviewed, int decksStudied) {
+        refreshStudyStreak(user);
+        userStatsWriteBuffer.add(user.getId(), UserStatsDelta.study(pointsEarned, cardsReviewed, decksStudied));
 
-        // Update study streak
-        updateStudyStreak(stats);
+        logger.info(
+                "Buffered user stats update - User: {}, Points: {}, Cards: {}, Decks: {}",
+                user.getId(),
+                pointsEarned,
+                cardsReviewed,
+                decksStudied);
+    }
+
+    /**
+     * Adds to the user's activity of today in the caller's transaction, so the
+     * daily rollup never disagrees with the answers and games it counts.
+     */
+    private void recordActivity(User user, int cards, int points, int games) {
+        if (cards == 0 && points == 0 && games == 0) {
+            return;
+        }
+        userDailyActivityRepository.addActivity(user.getId(), LocalDate.now(), cards, points, games);
+    }
 
-        // Save the updated stats
+    /**
+     * Brings the study streak up to date on the first activity of the day. Later
+     * activity on the same day cannot change the streak, so it only touches the
+     * write buffer.
+     */
+    private void refreshStudyStreak(User user) {
+        LocalDate today = LocalDate.now();
+        CheckedStreaks checked = checkedStreaks;
+        if (checked.day().equals(today) && checked.userIds().contains(user.getId())) {
+            return;
+        }
+        UserStats stats = getUserStats(user);
+        updateStudyStreak(stats);
         userStatsRepository.save(stats);
+        markStreakChecked(user.getId(), today);
+    }
 
-        logger.info(
-                "Updated user stats - User: {}, Points: {}, Cards: {}, Decks: {}",
-                user.getEmail(),
-                stats.getPointsEarned(),
-                stats.getCardsReviewed(),
-                stats.getDecksStudied());
+    /**
+     * Records that a user's streak is up to date once the current transaction
+     * commits, so a rolled back update is checked again.
+     */
+    private void markStreakChecked(Long userId, LocalDate day) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addCheckedStreak(userId, day);
+                }
+            });
+        } else {
+            addCheckedStreak(userId, day);
+        }
+    }
+
+    private synchronized void addCheckedStreak(Long userId, LocalDate day) {
+        CheckedStreaks checked = checkedStreaks;
+        if (day.isBefore(checked.day())) {
+            return;
+        }
+        if (day.isAfter(checked.day())) {
+            checked = new CheckedStreaks(day, ConcurrentHashMap.newKeySet());
+            checkedStreaks = checked;
+        }
+        checked.userIds().add(userId);
     }
 
     private void updateStudyStreak(UserStats stats) {
@@ -145,31 +254,40 @@ public class UserStatsServiceImpl implements UserStatsService {
     @Override
     @Transactional
     public void updateAfterAnswer(User user, boolean isCorrect) {
-        UserStats stats = getUserStats(user);
-        stats.setCardsReviewed(stats.getCardsReviewed() + 1);
-        if (isCorrect) {
-            stats.setPointsEarned(stats.getPointsEarned() + 10);
-        }
-        userStatsRepository.save(stats);
+        userStatsWriteBuffer.add(user.getId(), UserStatsDelta.study(isCorrect ? 10 : 0, 1, 0));
+        recordActivity(user, 1, isCorrect ? 10 : 0, 0);
+        eventPublisher.publishEvent(new UserActivityEvent(user.getId()));
     }
 
     @Override
     @Transactional
     public void updateAfterMatchingGame(User user, int points, int matchesFound, int attempts) {
-        UserStats stats = getUserStats(user);
-        stats.setMatchingGamePoints(stats.getMatchingGamePoints() + points);
-        stats.setMatchingGamesCompleted(stats.getMatchingGamesCompleted() + 1);
-        stats.setTotalMatchesFound(stats.getTotalMatchesFound() + matchesFound);
-        stats.setTotalMatchingAttempts(stats.getTotalMatchingAttempts() + attempts);
+        // One counter UPDATE in the caller's transaction, commits along with the game;
+        // every matched pair counts as a reviewed card
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        if (addMatchingGame(user, points, matchesFound, attempts, now) == 0) {
+            getUserStats(user);
+            addMatchingGame(user, points, matchesFound, attempts, now);
+        }
+        markStreakChecked(user.getId(), today);
 
-        // Update points earned
-        updateUserStats(user, points, 0, 1);
+        recordActivity(user, matchesFound, points, 1);
+        eventPublisher.publishEvent(new UserActivityEvent(user.getId()));
+    }
 
-        userStatsRepository.save(stats);
+    private int addMatchingGame(User user, int points, int matchesFound, int attempts, LocalDateTime now) {
+        LocalDateTime today = now.toLocalDate().atStartOfDay();
+        return userStatsRepository.addMatchingGame(user.getId(), points, matchesFound, attempts, now, today,
+                today.minusDays(1));
     }
 
     private UserStats createInitialUserStats(User user) {
-        UserStats stats = UserStats.builder()
+        return userStatsRepository.save(initialUserStats(user));
+    }
+
+    private UserStats initialUserStats(User user) {
+        return UserStats.builder()
                 .user(user)
                 .studyStreak(0)
                 .pointsEarned(0)
@@ -182,7 +300,6 @@ public class UserStatsServiceImpl implements UserStatsService {
                 .totalMatchesFound(0)
                 .totalMatchingAttempts(0)
                 .build();
-        return userStatsRepository.save(stats);
     }
 
     @Override
@@ -194,6 +311,7 @@ public class UserStatsServiceImpl implements UserStatsService {
         UserStats stats = getUserStats(user);
         stats.setDailyPointsGoal(newDailyGoal);
         userStatsRepository.save(stats);
+        eventPublisher.publishEvent(new UserActivityEvent(user.getId()));
     }
 
     private double calculateMatchAccuracy(UserStats stats) {
@@ -212,8 +330,27 @@ public class UserStatsServiceImpl implements UserStatsService {
 
     @Override
     public void updateDeckStudied(User user) {
-        UserStats stats = getUserStats(user);
-        stats.setDecksStudied(stats.getDecksStudied() + 1);
-        userStatsRepository.save(stats);
+        userStatsWriteBuffer.add(user.getId(), UserStatsDelta.study(0, 0, 1));
+        eventPublisher.publishEvent(new UserActivityEvent(user.getId()));
+    }
+
+    /**
+     * Returns a detached copy of the stats with the increments still waiting in
+     * the write buffer applied, so reads never lag behind recent activity.
+     */
+    private UserStats withPendingDeltas(User user, UserStats stats) {
+        UserStatsDelta pending = userStatsWriteBuffer.pending(user.getId());
+        if (pending == null) {
+            return stats;
+        }
+        return stats.toBuilder()
+                .pointsEarned(stats.getPointsEarned() + pending.pointsEarned)
+                .cardsReviewed(stats.getCardsReviewed() + pending.cardsReviewed)
+                .decksStudied(stats.getDecksStudied() + pending.decksStudied)
+                .matchingGamesCompleted(stats.getMatchingGamesCompleted() + pending.matchingGamesCompleted)
+                .matchingGamePoints(stats.getMatchingGamePoints() + pending.matchingGamePoints)
+                .totalMatchesFound(stats.getTotalMatchesFound() + pending.totalMatchesFound)
+                .totalMatchingAttempts(stats.getTotalMatchingAttempts() + pending.totalMatchingAttempts)
+                .build();
     }
-}
\ No newline at end of file
+}
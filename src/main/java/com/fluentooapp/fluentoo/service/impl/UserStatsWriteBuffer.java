@@ -0,0 +1,220 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind accumulator for user_stats counters. Increments are collected
+ * per user in memory and flushed as batched {@code SET col = col + ?}
+ * statements on a timer, when the number of pending users reaches a
+ * threshold, and on shutdown. Users without a user_stats row yet get one,
+ * holding the increments, instead of losing them.
+ */
+@Component
+class UserStatsWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsWriteBuffer.class);
+
+    private static final int STRIPES = 64;
+
+    private static final String FLUSH_SQL = "UPDATE user_stats SET "
+            + "points_earned = points_earned + ?, "
+            + "cards_reviewed = cards_reviewed + ?, "
+            + "decks_studied = decks_studied + ?, "
+            + "matching_games_completed = matching_games_completed + ?, "
+            + "matching_game_points = matching_game_points + ?, "
+            + "total_matches_found = total_matches_found + ?, "
+            + "total_matching_attempts = total_matching_attempts + ?, "
+            + "last_updated = ? "
+            + "WHERE user_id = ?";
+
+    // Creates the row of a user who has none yet, with the increments as its counters
+    private static final String INSERT_SQL = "INSERT INTO user_stats "
+            + "(user_id, points_earned, cards_reviewed, decks_studied, matching_games_completed, "
+            + "matching_game_points, total_matches_found, total_matching_attempts, last_updated, "
+            + "study_streak, daily_points_goal) "
+            + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 1500 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM user_stats WHERE user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Updates and inserts of a flush commit together, so a failed flush can be retried whole
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.buffer.max-pending-users:500}")
+    private int maxPendingUsers;
+
+    // Each stripe guards the deltas of the user ids that hash to it
+    @SuppressWarnings("unchecked")
+    private final Map<Long, UserStatsDelta>[] stripes = new Map[STRIPES];
+
+    // Deltas drained by the running flush, still visible to readers until written
+    private volatile Map<Long, UserStatsDelta> inFlight = Map.of();
+
+    private final AtomicInteger pendingUsers = new AtomicInteger();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-stats-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    UserStatsWriteBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Records an increment for the user. Inside a transaction the increment is
+     * only buffered once the transaction commits.
+     *
+     * @param userId the ID of the user.
+     * @param delta  the increments to apply.
+     */
+    void add(Long userId, UserStatsDelta delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(userId, delta);
+                }
+            });
+        } else {
+            addNow(userId, delta);
+        }
+    }
+
+    /**
+     * Returns a copy of the increments not yet written for the user.
+     *
+     * @param userId the ID of the user.
+     * @return the pending increments, or null if there are none.
+     */
+    UserStatsDelta pending(Long userId) {
+        Map<Long, UserStatsDelta> stripe = stripeFor(userId);
+        synchronized (stripe) {
+            UserStatsDelta delta = stripe.get(userId);
+            UserStatsDelta flushing = inFlight.get(userId);
+            if (delta == null && flushing == null) {
+                return null;
+            }
+            UserStatsDelta pending = new UserStatsDelta();
+            if (delta != null) {
+                pending.add(delta);
+            }
+            if (flushing != null) {
+                pending.add(flushing);
+            }
+            return pending;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.buffer.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        Map<Long, UserStatsDelta> drained = new ConcurrentHashMap<>();
+        inFlight = drained;
+        for (Map<Long, UserStatsDelta> stripe : stripes) {
+            synchronized (stripe) {
+                drained.putAll(stripe);
+                pendingUsers.addAndGet(-stripe.size());
+                stripe.clear();
+            }
+        }
+        if (drained.isEmpty()) {
+            inFlight = Map.of();
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((userId, delta) -> batch.add(new Object[] {
+                delta.pointsEarned,
+                delta.cardsReviewed,
+                delta.decksStudied,
+                delta.matchingGamesCompleted,
+                delta.matchingGamePoints,
+                delta.totalMatchesFound,
+                delta.totalMatchingAttempts,
+                now,
+                userId }));
+
+        try {
+            int created = transactionTemplate.execute(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                List<Object[]> missing = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        Object[] row = batch.get(i);
+                        Long userId = (Long) row[row.length - 1];
+                        missing.add(new Object[] { userId, row[0], row[1], row[2], row[3], row[4], row[5],
+                                row[6], now, userId });
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, missing);
+                }
+                return missing.size();
+            });
+            logger.debug("Flushed user stats for {} users, {} new", drained.size(), created);
+        } catch (Exception e) {
+            logger.error("Failed to flush user stats, keeping {} pending users: {}", drained.size(),
+                    e.getMessage());
+            drained.forEach(this::addNow);
+        } finally {
+            inFlight = Map.of();
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void addNow(Long userId, UserStatsDelta delta) {
+        Map<Long, UserStatsDelta> stripe = stripeFor(userId);
+        int pendingCount = 0;
+        synchronized (stripe) {
+            UserStatsDelta pending = stripe.get(userId);
+            if (pending == null) {
+                stripe.put(userId, delta.copy());
+                pendingCount = pendingUsers.incrementAndGet();
+            } else {
+                pending.add(delta);
+            }
+        }
+        if (pendingCount >= maxPendingUsers && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    private Map<Long, UserStatsDelta> stripeFor(Long userId) {
+        return stripes[(Long.hashCode(userId) & 0x7fffffff) % STRIPES];
+    }
+}
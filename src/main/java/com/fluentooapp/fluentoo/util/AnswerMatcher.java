@@ -0,0 +1,123 @@
+package com.fluentooapp.fluentoo.util;
+
+import java.text.Normalizer;
+import java.util.Set;
+
+public class AnswerMatcher {
+
+    // Reused DP rows of boundedDistance, grown on demand
+    private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[2][64]);
+
+    /**
+     * Normalizes an answer for comparison: applies Unicode NFKC, folds
+     * diacritics, lower-cases, turns punctuation into spaces, collapses
+     * whitespace and drops a leading article.
+     *
+     * @param answer   the answer.
+     * @param articles the lower-case articles to drop from the start.
+     * @return the normalized answer, or an empty string for null.
+     */
+    public static String normalize(String answer, Set<String> articles) {
+        if (answer == null) {
+            return "";
+        }
+        String text = answer;
+        if (!isAscii(text)) {
+            // NFKC folds compatibility forms, NFD then splits off the accents to drop
+            text = Normalizer.normalize(text, Normalizer.Form.NFKC);
+            text = Normalizer.normalize(text, Normalizer.Form.NFD);
+        }
+
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                pendingSpace = true;
+            }
+        }
+
+        int firstSpace = normalized.indexOf(" ");
+        if (firstSpace > 0 && articles.contains(normalized.substring(0, firstSpace))) {
+            normalized.delete(0, firstSpace + 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings when it does not
+     * exceed a bound. Only the diagonal band of width {@code 2 * max + 1} is
+     * evaluated and the computation stops as soon as a row exceeds the bound.
+     *
+     * @param a   the first string.
+     * @param b   the second string.
+     * @param max the largest distance of interest.
+     * @return the distance, or {@code max + 1} when it exceeds {@code max}.
+     */
+    public static int boundedDistance(CharSequence a, CharSequence b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int over = max + 1;
+        if (Math.abs(n - m) > max) {
+            return over;
+        }
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+
+        int[][] rows = ROWS.get();
+        if (rows[0].length < m + 1) {
+            rows = new int[2][Math.max(m + 1, rows[0].length * 2)];
+            ROWS.set(rows);
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : over;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            current[from - 1] = from == 1 && i <= max ? i : over;
+            int rowMin = current[from - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                int value = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            // The next row reads one cell past this band
+            if (to < m) {
+                current[to + 1] = over;
+            }
+            if (rowMin > max) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], over);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.fluentooapp.fluentoo.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Thread-safe cache holding at most a given number of entries, evicting the
+ * least recently used one past that. Entries may also expire: after the time
+ * to live of the cache, or at a time given when they are put. An expired entry
+ * is never returned and is dropped when next read.
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values, which may not be null.
+ */
+public class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+
+        private boolean isExpired(long now) {
+            return expiresAt < now;
+        }
+    }
+
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * Creates a cache whose entries only leave it when evicted or removed.
+     *
+     * @param maxSize the largest number of entries.
+     */
+    public BoundedCache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * @param maxSize   the largest number of entries.
+     * @param ttlMillis the time an entry is kept after it is put, or 0 to keep
+     *                  it until evicted or removed.
+     */
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value of a key, or null when it is absent or expired.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Puts a value that expires after the time to live of the cache.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(Objects.requireNonNull(value), defaultExpiresAt()));
+    }
+
+    /**
+     * Puts a value that expires at a given time, whatever the time to live of
+     * the cache.
+     *
+     * @param expiresAt the epoch milliseconds after which the value is expired.
+     */
+    public synchronized void put(K key, V value, long expiresAt) {
+        entries.put(key, new Entry<>(Objects.requireNonNull(value), expiresAt));
+    }
+
+    /**
+     * Puts a value unless the key holds one that has not expired.
+     *
+     * @return whether the value was put.
+     */
+    public synchronized boolean putIfAbsent(K key, V value) {
+        if (get(key) != null) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Replaces the value of a key only while it still holds the expected one.
+     *
+     * @return whether the value was replaced.
+     */
+    public synchronized boolean replace(K key, V expected, V value) {
+        V current = get(key);
+        if (current == null || !current.equals(expected)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes a key only while it holds the given value.
+     */
+    public synchronized void remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.value().equals(value)) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private long defaultExpiresAt() {
+        return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fluentooapp.fluentoo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set that also answers rank queries: a treap whose nodes count the
+ * elements of their subtree. Adding, removing and ranking an element take
+ * O(log n) expected time, listing the first k elements O(k + log n). Not
+ * thread-safe.
+ *
+ * @param <E> the type of elements, ordered by the comparator.
+ */
+public class RankedSet<E> {
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Node<E> root;
+
+    public RankedSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(E element) {
+        Node<E> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(element, node.value);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds an element unless an equal one is already present.
+     *
+     * @return whether the element was added.
+     */
+    public boolean add(E element) {
+        if (contains(element)) {
+            return false;
+        }
+        root = insert(root, new Node<>(element, random.nextInt()));
+        return true;
+    }
+
+    /**
+     * Removes the element equal to the given one.
+     *
+     * @return whether an element was removed.
+     */
+    public boolean remove(E element) {
+        if (!contains(element)) {
+            return false;
+        }
+        root = delete(root, element);
+        return true;
+    }
+
+    /**
+     * Returns the number of elements ordered before the given one, which is its
+     * zero-based position when it is present.
+     */
+    public int rank(E element) {
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(element, node.value);
+            if (comparison <= 0) {
+                if (comparison == 0) {
+                    return rank + size(node.left);
+                }
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the first elements in order.
+     *
+     * @param limit the largest number of elements to return.
+     */
+    public List<E> first(int limit) {
+        List<E> elements = new ArrayList<>(Math.min(limit, size()));
+        Deque<Node<E>> path = new ArrayDeque<>();
+        Node<E> node = root;
+        while (elements.size() < limit && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            elements.add(node.value);
+            node = node.right;
+        }
+        return elements;
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (comparator.compare(inserted.value, node.value) < 0) {
+            node.left = insert(node.left, inserted);
+            update(node);
+            return node.left.priority > node.priority ? rotateRight(node) : node;
+        }
+        node.right = insert(node.right, inserted);
+        update(node);
+        return node.right.priority > node.priority ? rotateLeft(node) : node;
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        int comparison = comparator.compare(element, node.value);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = delete(node.left, element);
+        } else {
+            node.right = delete(node.right, element);
+        }
+        update(node);
+        return node;
+    }
+
+    // Every element of left is ordered before every element of right
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
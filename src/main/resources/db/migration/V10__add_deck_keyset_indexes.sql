@@ -0,0 +1,12 @@
+-- Keyset pagination of the public catalog, overall and per subject.
+-- Each index matches one listing order including the id tie-break.
+CREATE INDEX IF NOT EXISTS idx_deck_public_launch_count ON decks (launch_count DESC, id DESC) WHERE is_public;
+CREATE INDEX IF NOT EXISTS idx_deck_public_created_at ON decks (created_at DESC, id DESC) WHERE is_public;
+CREATE INDEX IF NOT EXISTS idx_deck_public_name ON decks (name, id) WHERE is_public;
+
+CREATE INDEX IF NOT EXISTS idx_deck_public_subject_launch_count ON decks (subject_id, launch_count DESC, id DESC) WHERE is_public;
+CREATE INDEX IF NOT EXISTS idx_deck_public_subject_created_at ON decks (subject_id, created_at DESC, id DESC) WHERE is_public;
+CREATE INDEX IF NOT EXISTS idx_deck_public_subject_name ON decks (subject_id, name, id) WHERE is_public;
+
+-- A user's own decks are few; a single order-matching index is enough.
+CREATE INDEX IF NOT EXISTS idx_deck_creator_created_at ON decks (created_by, created_at DESC, id DESC);
@@ -0,0 +1,8 @@
+ALTER TABLE revisions ADD COLUMN IF NOT EXISTS mode VARCHAR(16) NOT NULL DEFAULT 'ALL';
+
+-- Cards that were never scheduled are due now
+UPDATE flashcards SET revision_time = created_at WHERE revision_time IS NULL;
+
+-- Serves due-card selection and due counts per deck; supersedes idx_flashcard_deck
+CREATE INDEX IF NOT EXISTS idx_flashcard_deck_revision_time ON flashcards (deck_id, revision_time);
+DROP INDEX IF EXISTS idx_flashcard_deck;
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS user_card_state (
+    user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    card_id BIGINT NOT NULL REFERENCES flashcards (id) ON DELETE CASCADE,
+    envelope INTEGER NOT NULL,
+    due_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, card_id)
+);
+
+-- Next due cards of a user across all decks
+CREATE INDEX IF NOT EXISTS idx_user_card_state_due ON user_card_state (user_id, due_at);
+
+-- Carry the shared schedule over for learners who already revised a deck
+INSERT INTO user_card_state (user_id, card_id, envelope, due_at)
+SELECT DISTINCT r.user_id, f.id, f.envelope_nb, f.revision_time
+FROM revisions r
+JOIN flashcards f ON f.deck_id = r.deck_id
+WHERE r.mode = 'DUE' AND f.revision_time IS NOT NULL
+ON CONFLICT (user_id, card_id) DO NOTHING;
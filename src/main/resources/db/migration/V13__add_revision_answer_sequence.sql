@@ -0,0 +1 @@
+ALTER TABLE revisions ADD COLUMN IF NOT EXISTS last_answer_seq BIGINT NOT NULL DEFAULT 0;
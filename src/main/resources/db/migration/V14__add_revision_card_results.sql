@@ -0,0 +1,5 @@
+-- Card order of a revision and which cards were answered, and correctly, as bitsets
+-- indexed by position in that order; written when the revision session ends
+ALTER TABLE revisions ADD COLUMN IF NOT EXISTS card_order BIGINT[];
+ALTER TABLE revisions ADD COLUMN IF NOT EXISTS answered_cards BYTEA;
+ALTER TABLE revisions ADD COLUMN IF NOT EXISTS correct_cards BYTEA;
@@ -0,0 +1,14 @@
+-- Append-only log of the answers given during revisions
+CREATE TABLE IF NOT EXISTS revision_answers (
+    id BIGSERIAL PRIMARY KEY,
+    revision_id BIGINT NOT NULL REFERENCES revisions (id) ON DELETE CASCADE,
+    flashcard_id BIGINT NOT NULL REFERENCES flashcards (id) ON DELETE CASCADE,
+    correct BOOLEAN NOT NULL,
+    latency_ms INTEGER,
+    answered_at TIMESTAMP NOT NULL
+);
+
+-- Answer history of a card, for hardest-card statistics
+CREATE INDEX IF NOT EXISTS idx_revision_answers_flashcard ON revision_answers (flashcard_id, answered_at);
+
+CREATE INDEX IF NOT EXISTS idx_revision_answers_revision ON revision_answers (revision_id);
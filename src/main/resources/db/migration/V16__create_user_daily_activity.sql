@@ -0,0 +1,18 @@
+-- Per-user, per-day activity totals kept up to date with each answer and game
+CREATE TABLE IF NOT EXISTS user_daily_activity (
+    user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    cards INTEGER NOT NULL DEFAULT 0,
+    points INTEGER NOT NULL DEFAULT 0,
+    games INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day)
+);
+
+-- Completed matching games carry everything needed to rebuild their share;
+-- revisions never stored their answer count, so earlier revision days start empty
+INSERT INTO user_daily_activity (user_id, day, cards, points, games)
+SELECT user_id, CAST(created_at AS DATE), SUM(total_pairs), SUM(total_pairs * 5), COUNT(*)
+FROM matching_game
+WHERE completion_time_in_seconds IS NOT NULL AND created_at IS NOT NULL
+GROUP BY user_id, CAST(created_at AS DATE)
+ON CONFLICT (user_id, day) DO NOTHING;
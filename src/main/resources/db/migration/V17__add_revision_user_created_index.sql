@@ -0,0 +1,2 @@
+-- Latest revisions of a user for the dashboard, and progress ranges
+CREATE INDEX IF NOT EXISTS idx_revision_user_created ON revisions (user_id, created_at);
@@ -0,0 +1,3 @@
+-- Seed of the random generator that sampled and shuffled the pairs of a game,
+-- so its board can be generated again after leaving the board cache
+ALTER TABLE matching_game ADD COLUMN IF NOT EXISTS board_seed BIGINT;
@@ -0,0 +1,4 @@
+-- Due cards are scheduled in user_card_state, so only the deck_id prefix of
+-- idx_flashcard_deck_revision_time is still read; a plain deck_id index replaces it
+CREATE INDEX IF NOT EXISTS idx_flashcard_deck ON flashcards (deck_id);
+DROP INDEX IF EXISTS idx_flashcard_deck_revision_time;
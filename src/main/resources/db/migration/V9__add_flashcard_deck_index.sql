@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_flashcard_deck ON flashcards (deck_id);
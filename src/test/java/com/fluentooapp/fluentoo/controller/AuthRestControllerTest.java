@@ -0,0 +1,88 @@
+package com.fluentooapp.fluentoo.controller;
+
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.security.JwtUtil;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revokes the tokens of a user through the real security filter chain, after
+ * its principal or token version was cached by an earlier request.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth-rest-controller;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureMockMvc
+class AuthRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void revokedTokensAreRejectedAndNewOnesAccepted() throws Exception {
+        revokeAndRetry(mockMvc);
+    }
+
+    // The outer instance is injected from the outer context, so its filter chain is not used here
+    @Nested
+    @TestPropertySource(properties = "jwt.claims-principal.enabled=true")
+    class WithClaimsPrincipals {
+
+        @Autowired
+        private MockMvc claimsMockMvc;
+
+        @Test
+        void revokedTokensAreRejectedAndNewOnesAccepted() throws Exception {
+            revokeAndRetry(claimsMockMvc);
+        }
+    }
+
+    private void revokeAndRetry(MockMvc mockMvc) throws Exception {
+        User user = saveUser();
+        String oldToken = "Bearer " + jwtUtil.generateToken(user);
+
+        mockMvc.perform(get("/api/decks/subjects").header("Authorization", oldToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/revoke-tokens").header("Authorization", oldToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/decks/subjects").header("Authorization", oldToken))
+                .andExpect(status().isForbidden());
+
+        String newToken = "Bearer " + jwtUtil.generateToken(userRepository.findById(user.getId()).orElseThrow());
+        mockMvc.perform(get("/api/decks/subjects").header("Authorization", newToken))
+                .andExpect(status().isOk());
+    }
+
+    private User saveUser() {
+        User user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Tester");
+        user.setEmail("ada-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
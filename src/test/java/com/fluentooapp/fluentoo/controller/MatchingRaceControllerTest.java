@@ -0,0 +1,187 @@
+package com.fluentooapp.fluentoo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.FlashCard;
+import com.fluentooapp.fluentoo.entity.Subject;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.repository.DeckRepository;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.repository.SubjectRepository;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs a race through the real security filter chain. Every endpoint answers
+ * with a future completed by the room, so each response is written on an async
+ * dispatch.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:matching-race-controller;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureMockMvc
+class MatchingRaceControllerTest {
+
+    private static final Map<String, String> ANSWERS = Map.of("cat", "chat", "dog", "chien");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashCardRepository flashCardRepository;
+
+    private User host;
+
+    private User guest;
+
+    private Deck deck;
+
+    @BeforeEach
+    void setUp() {
+        host = saveUser("Ada");
+        guest = saveUser("Grace");
+
+        Subject subject = new Subject();
+        subject.setName("French " + System.nanoTime());
+        subject.setDescription("French vocabulary");
+        subject = subjectRepository.save(subject);
+
+        // Private: only its owner may open a room on it
+        deck = new Deck();
+        deck.setName("Animals");
+        deck.setSubject(subject);
+        deck.setCreatedBy(host);
+        deck.setPublic(false);
+        deck = deckRepository.save(deck);
+
+        ANSWERS.forEach((question, answer) -> {
+            FlashCard card = new FlashCard();
+            card.setQuestion(question);
+            card.setAnswer(answer);
+            card.setDeck(deck);
+            flashCardRepository.save(card);
+        });
+    }
+
+    @Test
+    void racesThroughAsyncDispatches() throws Exception {
+        JsonNode room = perform(post("/api/matching-race/rooms").param("deckId", deck.getId().toString()), host);
+        assertThat(room.get("status").asText()).isEqualTo("WAITING");
+        assertThat(room.get("questions").isNull()).isTrue();
+        String roomId = room.get("roomId").asText();
+
+        JsonNode joined = perform(post("/api/matching-race/rooms/{roomId}/join", roomId), guest);
+        assertThat(joined.get("players")).hasSize(2);
+
+        JsonNode started = perform(post("/api/matching-race/rooms/{roomId}/start", roomId), host);
+        assertThat(started.get("status").asText()).isEqualTo("RUNNING");
+        assertThat(started.get("questions")).hasSize(2);
+        assertThat(started.get("answers")).hasSize(2);
+
+        Map<String, Integer> answerPositions = new HashMap<>();
+        started.get("answers").forEach(tile -> answerPositions.put(tile.get("text").asText(),
+                tile.get("position").asInt()));
+        JsonNode first = started.get("questions").get(0);
+        JsonNode second = started.get("questions").get(1);
+        int firstAnswer = answerPositions.get(ANSWERS.get(first.get("text").asText()));
+        int secondAnswer = answerPositions.get(ANSWERS.get(second.get("text").asText()));
+
+        JsonNode wrong = move(roomId, first.get("position").asInt(), secondAnswer);
+        assertThat(wrong.get("correct").asBoolean()).isFalse();
+        assertThat(wrong.get("totalAttempts").asInt()).isEqualTo(1);
+
+        JsonNode correct = move(roomId, first.get("position").asInt(), firstAnswer);
+        assertThat(correct.get("correct").asBoolean()).isTrue();
+        assertThat(correct.get("matchedPairs").asInt()).isEqualTo(1);
+        assertThat(correct.get("totalAttempts").asInt()).isEqualTo(2);
+        assertThat(correct.get("completed").asBoolean()).isFalse();
+    }
+
+    @Test
+    void refusesRoomsOnAPrivateDeckOfAnotherUser() throws Exception {
+        mockMvc.perform(post("/api/matching-race/rooms")
+                        .param("deckId", deck.getId().toString())
+                        .header("Authorization", bearer(guest)))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(content().string(containsString("You don't have access to this deck")));
+    }
+
+    @Test
+    void rejectsRequestsWithoutAToken() throws Exception {
+        mockMvc.perform(post("/api/matching-race/rooms").param("deckId", deck.getId().toString()))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode move(String roomId, int questionPosition, int answerPosition) throws Exception {
+        return perform(post("/api/matching-race/rooms/{roomId}/moves", roomId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "questionPosition", questionPosition,
+                        "answerPosition", answerPosition))), guest);
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder builder, User user) throws Exception {
+        MvcResult started = mockMvc.perform(builder.header("Authorization", bearer(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult dispatched = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(dispatched.getResponse().getContentAsString());
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtUtil.generateToken(user);
+    }
+
+    private User saveUser(String firstName) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Tester");
+        user.setEmail(firstName.toLowerCase() + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
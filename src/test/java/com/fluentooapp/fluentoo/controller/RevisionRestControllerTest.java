@@ -0,0 +1,103 @@
+package com.fluentooapp.fluentoo.controller;
+
+import com.fluentooapp.fluentoo.dto.ProgressData;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.security.JwtUtil;
+import com.fluentooapp.fluentoo.service.RevisionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the streamed progress endpoint through the real security filter chain,
+ * including the async dispatch that completes the response.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revision-controller;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureMockMvc
+class RevisionRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private RevisionService revisionService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByEmail("ada@example.com").orElseGet(() -> {
+            User created = new User();
+            created.setFirstName("Ada");
+            created.setLastName("Lovelace");
+            created.setEmail("ada@example.com");
+            created.setPassword("secret");
+            return userRepository.save(created);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamsProgressAsAJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProgressData> consumer = invocation.getArgument(4);
+            consumer.accept(new ProgressData(LocalDateTime.of(2026, 1, 5, 0, 0), 75.0, 8, 6));
+            consumer.accept(new ProgressData(LocalDateTime.of(2026, 1, 6, 0, 0), 50.0, 4, 2));
+            return null;
+        }).when(revisionService).streamProgress(eq(user.getId()), isNull(), isNull(), isNull(), any(Consumer.class));
+
+        MvcResult started = mockMvc.perform(get("/api/revisions/progress")
+                        .param("stream", "true")
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        [
+                          {"date": "2026-01-05T00:00:00", "score": 75.0, "totalCards": 8, "correctCards": 6},
+                          {"date": "2026-01-06T00:00:00", "score": 50.0, "totalCards": 4, "correctCards": 2}
+                        ]
+                        """, true));
+    }
+
+    @Test
+    void rejectsStreamingWithoutAToken() throws Exception {
+        mockMvc.perform(get("/api/revisions/progress").param("stream", "true"))
+                .andExpect(status().isForbidden());
+    }
+}
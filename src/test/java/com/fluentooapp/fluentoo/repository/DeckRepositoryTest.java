@@ -0,0 +1,141 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.FlashCard;
+import com.fluentooapp.fluentoo.entity.Subject;
+import com.fluentooapp.fluentoo.entity.User;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of the two-phase deck loaders: one query for the
+ * deck headers and one per batch of flashcard collections, however many cards
+ * the decks hold.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DeckRepositoryTest {
+
+    private static final int CARD_COUNT = 250;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    private Statistics statistics;
+
+    private User user;
+
+    private Subject subject;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Lovelace");
+        user.setEmail("ada@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        subject = new Subject();
+        subject.setName("English");
+        subject.setDescription("English vocabulary");
+        entityManager.persist(subject);
+    }
+
+    @Test
+    void findByIdWithDetailsLoadsDeckAndCardsInTwoStatements() {
+        Deck deck = persistDeck("Large deck", true, CARD_COUNT);
+        entityManager.clear();
+        statistics.clear();
+
+        Deck loaded = deckRepository.findByIdWithDetails(deck.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(loaded.getSubject())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getCreatedBy())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getFlashCards())).isTrue();
+        assertThat(loaded.getFlashCards()).hasSize(CARD_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findByIsPublicTrueLoadsCardsOfAllDecksInOneBatch() {
+        for (int i = 0; i < 5; i++) {
+            persistDeck("Public deck " + i, true, CARD_COUNT / 5);
+        }
+        persistDeck("Private deck", false, 10);
+        entityManager.clear();
+        statistics.clear();
+
+        List<Deck> decks = deckRepository.findByIsPublicTrue();
+
+        assertThat(decks).hasSize(5);
+        assertThat(decks).allSatisfy(deck -> {
+            assertThat(Hibernate.isInitialized(deck.getFlashCards())).isTrue();
+            assertThat(deck.getFlashCards()).hasSize(CARD_COUNT / 5);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findPublicPageWalksAllDecksInSortOrder() {
+        for (String name : List.of("Delta", "Alpha", "Echo", "Charlie", "Bravo")) {
+            persistDeck(name, true, 3);
+        }
+        entityManager.clear();
+
+        List<String> names = new ArrayList<>();
+        DeckKeyset after = null;
+        List<Deck> page;
+        do {
+            statistics.clear();
+            page = deckRepository.findPublicPage(null, DeckSort.NAME, after, 2);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            page.forEach(deck -> names.add(deck.getName()));
+            if (!page.isEmpty()) {
+                Deck last = page.get(page.size() - 1);
+                after = new DeckKeyset(last.getName(), last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertThat(names).containsExactly("Alpha", "Bravo", "Charlie", "Delta", "Echo");
+    }
+
+    private Deck persistDeck(String name, boolean isPublic, int cardCount) {
+        Deck deck = new Deck();
+        deck.setName(name);
+        deck.setSubject(subject);
+        deck.setCreatedBy(user);
+        deck.setPublic(isPublic);
+        for (int i = 0; i < cardCount; i++) {
+            FlashCard flashCard = new FlashCard();
+            flashCard.setQuestion("Question " + i);
+            flashCard.setAnswer("Answer " + i);
+            flashCard.setDeck(deck);
+            deck.getFlashCards().add(flashCard);
+        }
+        entityManager.persist(deck);
+        entityManager.flush();
+        return deck;
+    }
+}
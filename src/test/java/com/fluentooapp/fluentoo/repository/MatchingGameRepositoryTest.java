@@ -0,0 +1,117 @@
+package com.fluentooapp.fluentoo.repository;
+
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.MatchingGame;
+import com.fluentooapp.fluentoo.entity.Subject;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.entity.UserStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Covers the single-statement writes of a matching game completion: the game
+ * UPDATE that only matches once, and the stats UPDATE that carries the streak.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class MatchingGameRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MatchingGameRepository matchingGameRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    private User user;
+
+    private MatchingGame game;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Lovelace");
+        user.setEmail("ada@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        Subject subject = new Subject();
+        subject.setName("English");
+        subject.setDescription("English vocabulary");
+        entityManager.persist(subject);
+
+        Deck deck = new Deck();
+        deck.setName("Animals");
+        deck.setSubject(subject);
+        deck.setCreatedBy(user);
+        deck.setPublic(true);
+        entityManager.persist(deck);
+
+        game = new MatchingGame();
+        game.setDeck(deck);
+        game.setUser(user);
+        game.setTotalPairs(8);
+        entityManager.persist(game);
+    }
+
+    @Test
+    void completeMatchesNoRowOnceTheGameIsCompleted() {
+        assertThat(matchingGameRepository.complete(game.getId(), 42L, 11)).isEqualTo(1);
+        assertThat(matchingGameRepository.complete(game.getId(), 7L, 8)).isZero();
+
+        entityManager.clear();
+        assertThat(entityManager.find(MatchingGame.class, game.getId()).getCompletionTimeInSeconds())
+                .isEqualTo(42L);
+    }
+
+    @Test
+    void addMatchingGameKeepsTheStreakOnTheSameDayAndResetsItAfterAGap() {
+        LocalDateTime now = LocalDateTime.now();
+        persistStats(3, now);
+
+        addMatchingGame(now);
+        entityManager.clear();
+        assertThat(userStatsRepository.findByUser(user).orElseThrow().getStudyStreak()).isEqualTo(3);
+
+        setLastUpdated(now.minusDays(3));
+        addMatchingGame(now);
+        entityManager.clear();
+        assertThat(userStatsRepository.findByUser(user).orElseThrow().getStudyStreak()).isEqualTo(1);
+    }
+
+    private void persistStats(int studyStreak, LocalDateTime lastUpdated) {
+        entityManager.persist(UserStats.builder()
+                .user(user)
+                .studyStreak(studyStreak)
+                .build());
+        entityManager.flush();
+        setLastUpdated(lastUpdated);
+    }
+
+    // Bypasses the entity callbacks, which stamp the current time
+    private void setLastUpdated(LocalDateTime lastUpdated) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE UserStats s SET s.lastUpdated = :lastUpdated WHERE s.user.id = :userId")
+                .setParameter("lastUpdated", lastUpdated)
+                .setParameter("userId", user.getId())
+                .executeUpdate();
+    }
+
+    private int addMatchingGame(LocalDateTime now) {
+        LocalDateTime today = now.toLocalDate().atStartOfDay();
+        return userStatsRepository.addMatchingGame(user.getId(), 40, 8, 11, now, today, today.minusDays(1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingPairDTO;
+import com.fluentooapp.fluentoo.exception.ResourceNotFoundException;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the edits allowed per answer length, and that cached answers are read
+ * once and dropped when their card changes.
+ */
+class AnswerGraderTest {
+
+    private FlashCardRepository flashCardRepository;
+
+    private AnswerGrader answerGrader;
+
+    @BeforeEach
+    void setUp() {
+        flashCardRepository = mock(FlashCardRepository.class);
+        answerGrader = new AnswerGrader(flashCardRepository, List.of("le", "la", "l", "the"), 2, 5, 100);
+        when(flashCardRepository.findAnswerById(1L)).thenReturn(Optional.of("Chat"));
+        when(flashCardRepository.findAnswerById(2L)).thenReturn(Optional.of("la bibliothèque"));
+        when(flashCardRepository.findAnswerById(3L)).thenReturn(Optional.of("maison"));
+    }
+
+    @Test
+    void shortAnswersMustMatchExactly() {
+        assertThat(answerGrader.grade(1L, "  chat! ")).isTrue();
+        assertThat(answerGrader.grade(1L, "le chat")).isTrue();
+        assertThat(answerGrader.grade(1L, "chta")).isFalse();
+        assertThat(answerGrader.grade(1L, "chats")).isFalse();
+    }
+
+    @Test
+    void longerAnswersAllowOneEditPerFiveCharactersUpToTheMax() {
+        // "maison": 6 characters, one edit
+        assertThat(answerGrader.grade(3L, "maisn")).isTrue();
+        assertThat(answerGrader.grade(3L, "masn")).isFalse();
+        // "bibliotheque": 12 characters, capped at two edits
+        assertThat(answerGrader.grade(2L, "Bibliothèque")).isTrue();
+        assertThat(answerGrader.grade(2L, "bibliotheqe")).isTrue();
+        assertThat(answerGrader.grade(2L, "biblioteqe")).isTrue();
+        assertThat(answerGrader.grade(2L, "bibloteqe")).isFalse();
+    }
+
+    @Test
+    void blankAnswersAreWrong() {
+        assertThat(answerGrader.grade(1L, "")).isFalse();
+        assertThat(answerGrader.grade(1L, " ?! ")).isFalse();
+        assertThat(answerGrader.grade(1L, "the")).isFalse();
+    }
+
+    @Test
+    void answersAreReadOnceUntilTheirCardChanges() {
+        answerGrader.grade(1L, "chat");
+        answerGrader.grade(1L, "chien");
+        verify(flashCardRepository, times(1)).findAnswerById(1L);
+
+        when(flashCardRepository.findAnswerById(1L)).thenReturn(Optional.of("chien"));
+        answerGrader.onFlashCardChanged(new FlashCardChangedEvent(1L));
+        assertThat(answerGrader.grade(1L, "chien")).isTrue();
+        verify(flashCardRepository, times(2)).findAnswerById(1L);
+    }
+
+    @Test
+    void preloadReadsOnlyTheMissingAnswers() {
+        answerGrader.grade(1L, "chat");
+        when(flashCardRepository.findPairsByIdIn(List.of(3L)))
+                .thenReturn(List.of(new MatchingPairDTO(3L, "house", "maison", false)));
+
+        answerGrader.preload(List.of(1L, 3L, 3L));
+        assertThat(answerGrader.grade(3L, "maison")).isTrue();
+        verify(flashCardRepository, never()).findAnswerById(3L);
+
+        answerGrader.preload(List.of(1L, 3L));
+        verify(flashCardRepository, times(1)).findPairsByIdIn(anyCollection());
+    }
+
+    @Test
+    void deletedCardsAreNotFound() {
+        when(flashCardRepository.findAnswerById(9L)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> answerGrader.grade(9L, "chat")).isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,239 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.MatchingGameDTO;
+import com.fluentooapp.fluentoo.dto.MatchingMoveRequest;
+import com.fluentooapp.fluentoo.dto.MatchingMoveResponse;
+import com.fluentooapp.fluentoo.dto.MatchingTileDTO;
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.FlashCard;
+import com.fluentooapp.fluentoo.entity.MatchingGame;
+import com.fluentooapp.fluentoo.entity.Subject;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.entity.UserDailyActivity;
+import com.fluentooapp.fluentoo.entity.UserStats;
+import com.fluentooapp.fluentoo.repository.DeckRepository;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.repository.MatchingGameRepository;
+import com.fluentooapp.fluentoo.repository.SubjectRepository;
+import com.fluentooapp.fluentoo.repository.UserDailyActivityRepository;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.repository.UserStatsRepository;
+import com.fluentooapp.fluentoo.security.ClaimsPrincipal;
+import com.fluentooapp.fluentoo.service.MatchingGameService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statements a matching game completion runs: one UPDATE of the
+ * game row, one of the stats row and the upsert of the day's activity, without
+ * reading anything first. Also plays a game whose state was lost.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:matching-game-service;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.fluentooapp.fluentoo.service.impl.MatchingGameServiceImplTest$RecordingStatementInspector"
+})
+class MatchingGameServiceImplTest {
+
+    private static final Map<String, String> ANSWERS = Map.of("cat", "chat", "dog", "chien");
+
+    /**
+     * Records the statements Hibernate runs on the test thread. H2 has no
+     * ON CONFLICT clause, so the activity upsert is recorded as written and
+     * run as the equivalent MERGE.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        private static final String H2_ACTIVITY_UPSERT = "MERGE INTO user_daily_activity t USING (VALUES "
+                + "(CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS INT), CAST(? AS INT), CAST(? AS INT))) "
+                + "s(user_id, activity_day, cards, points, games) "
+                + "ON t.user_id = s.user_id AND t.\"day\" = s.activity_day "
+                + "WHEN MATCHED THEN UPDATE SET cards = t.cards + s.cards, points = t.points + s.points, "
+                + "games = t.games + s.games "
+                + "WHEN NOT MATCHED THEN INSERT (user_id, \"day\", cards, points, games) "
+                + "VALUES (s.user_id, s.activity_day, s.cards, s.points, s.games)";
+
+        @Override
+        public String inspect(String sql) {
+            List<String> recorded = RECORDED.get();
+            if (recorded != null) {
+                recorded.add(sql);
+            }
+            return sql.startsWith("INSERT INTO user_daily_activity") ? H2_ACTIVITY_UPSERT : sql;
+        }
+
+        static List<String> start() {
+            List<String> recorded = new ArrayList<>();
+            RECORDED.set(recorded);
+            return recorded;
+        }
+
+        static void stop() {
+            RECORDED.remove();
+        }
+    }
+
+    @Autowired
+    private MatchingGameService matchingGameService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashCardRepository flashCardRepository;
+
+    @Autowired
+    private MatchingGameRepository matchingGameRepository;
+
+    @Autowired
+    private UserDailyActivityRepository userDailyActivityRepository;
+
+    @Autowired
+    private MatchingGameStates matchingGameStates;
+
+    @Autowired
+    private MatchingBoards matchingBoards;
+
+    private User user;
+
+    private Deck deck;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Lovelace");
+        user.setEmail("ada-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        userStatsRepository.save(UserStats.builder().user(user).build());
+
+        Subject subject = new Subject();
+        subject.setName("French " + System.nanoTime());
+        subject.setDescription("French vocabulary");
+        subject = subjectRepository.save(subject);
+
+        deck = new Deck();
+        deck.setName("Animals");
+        deck.setSubject(subject);
+        deck.setCreatedBy(user);
+        deck.setPublic(true);
+        deck = deckRepository.save(deck);
+
+        ANSWERS.forEach((question, answer) -> {
+            FlashCard card = new FlashCard();
+            card.setQuestion(question);
+            card.setAnswer(answer);
+            card.setDeck(deck);
+            flashCardRepository.save(card);
+        });
+
+        ClaimsPrincipal principal = new ClaimsPrincipal(user.getId(), user.getEmail());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RecordingStatementInspector.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void completingMoveUpdatesGameAndStatsAndUpsertsTheDaysActivity() {
+        MatchingGameDTO game = matchingGameService.startNewGame(deck.getId());
+        List<MatchingMoveRequest> moves = solve(game);
+        assertThat(matchingGameService.submitMove(game.getId(), moves.get(0)).isCompleted()).isFalse();
+
+        List<String> statements = RecordingStatementInspector.start();
+        MatchingMoveResponse completing = matchingGameService.submitMove(game.getId(), moves.get(1));
+        RecordingStatementInspector.stop();
+
+        assertThat(completing.isCompleted()).isTrue();
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0).toLowerCase(Locale.ROOT)).startsWith("update matching_game ");
+        assertThat(statements.get(1).toLowerCase(Locale.ROOT)).startsWith("update user_stats ");
+        assertThat(statements.get(2)).startsWith("INSERT INTO user_daily_activity")
+                .contains("ON CONFLICT (user_id, day) DO UPDATE");
+
+        MatchingGame saved = matchingGameRepository.findById(game.getId()).orElseThrow();
+        assertThat(saved.getCompletionTimeInSeconds()).isEqualTo(completing.getCompletionTimeInSeconds());
+        assertThat(saved.getTotalAttempts()).isEqualTo(2);
+        UserStats stats = userStatsRepository.findByUser(user).orElseThrow();
+        assertThat(stats.getMatchingGamesCompleted()).isEqualTo(1);
+        assertThat(stats.getMatchingGamePoints()).isEqualTo(10);
+        assertThat(stats.getTotalMatchesFound()).isEqualTo(2);
+        assertThat(stats.getTotalMatchingAttempts()).isEqualTo(2);
+        List<UserDailyActivity> activity = userDailyActivityRepository.findByUserIdAndDayBetween(user.getId(),
+                LocalDate.now(), LocalDate.now());
+        assertThat(activity).singleElement().satisfies(day -> {
+            assertThat(day.getCards()).isEqualTo(2);
+            assertThat(day.getPoints()).isEqualTo(10);
+            assertThat(day.getGames()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void resumesAGameWhoseStateWasLostOutsideATransaction() {
+        MatchingGameDTO started = matchingGameService.startNewGame(deck.getId());
+        assertThat(matchingGameStates.get(started.getId())).isNotNull();
+        assertThat(matchingBoards.getIfCached(started.getId())).isNotNull();
+
+        // As after a restart: the game is restored from its row, deck, subject and player included
+        matchingGameStates.remove(matchingGameStates.get(started.getId()));
+        matchingBoards.evict(started.getId());
+        MatchingGameDTO resumed = matchingGameService.getGame(started.getId());
+        assertThat(resumed.getQuestions()).isEqualTo(started.getQuestions());
+        assertThat(resumed.getAnswers()).isEqualTo(started.getAnswers());
+
+        matchingGameStates.remove(matchingGameStates.get(started.getId()));
+        List<MatchingMoveRequest> moves = solve(resumed);
+        assertThat(matchingGameService.submitMove(started.getId(), moves.get(0)).isCorrect()).isTrue();
+        assertThat(matchingGameService.submitMove(started.getId(), moves.get(1)).isCompleted()).isTrue();
+    }
+
+    // Pairs the tiles by their text, the only thing that links a question to its answer
+    private static List<MatchingMoveRequest> solve(MatchingGameDTO game) {
+        Map<String, Integer> answerPositions = game.getAnswers().stream()
+                .collect(Collectors.toMap(MatchingTileDTO::getText, MatchingTileDTO::getPosition));
+        return game.getQuestions().stream()
+                .map(question -> {
+                    MatchingMoveRequest move = new MatchingMoveRequest();
+                    move.setQuestionPosition(question.getPosition());
+                    move.setAnswerPosition(answerPositions.get(ANSWERS.get(question.getText())));
+                    return move;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.LeaderboardDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardEntryDto;
+import com.fluentooapp.fluentoo.dto.LeaderboardMetric;
+import com.fluentooapp.fluentoo.dto.LeaderboardScope;
+import com.fluentooapp.fluentoo.dto.MatchingResult;
+import com.fluentooapp.fluentoo.repository.MatchingGameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranks games on the boards, then deletes and relists decks, also while a
+ * rebuild is reading the games.
+ */
+class MatchingLeaderboardsTest {
+
+    private static final long PUBLIC_DECK = 1L;
+
+    private static final long OTHER_DECK = 2L;
+
+    private static final long SUBJECT = 10L;
+
+    private MatchingGameRepository matchingGameRepository;
+
+    private MatchingLeaderboards leaderboards;
+
+    @BeforeEach
+    void setUp() {
+        matchingGameRepository = mock(MatchingGameRepository.class);
+        leaderboards = new MatchingLeaderboards(matchingGameRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void keepsTheBestGameOfEachPlayer() {
+        leaderboards.record(game(1, 100, PUBLIC_DECK, 40, 12));
+        leaderboards.record(game(2, 100, PUBLIC_DECK, 30, 20));
+        leaderboards.record(game(3, 200, PUBLIC_DECK, 35, 10));
+
+        LeaderboardDto byTime = board(LeaderboardScope.GLOBAL, null, LeaderboardMetric.FASTEST_TIME, 200);
+        assertThat(byTime.totalPlayers()).isEqualTo(2);
+        assertThat(byTime.entries()).extracting(LeaderboardEntryDto::gameId).containsExactly(2L, 3L);
+        assertThat(byTime.currentUser().rank()).isEqualTo(2);
+
+        LeaderboardDto byAttempts = board(LeaderboardScope.DECK, PUBLIC_DECK, LeaderboardMetric.FEWEST_ATTEMPTS, 100);
+        assertThat(byAttempts.entries()).extracting(LeaderboardEntryDto::gameId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void dropsTheGamesOfADeletedDeck() {
+        leaderboards.record(game(1, 100, PUBLIC_DECK, 40, 12));
+        leaderboards.record(game(2, 200, OTHER_DECK, 50, 12));
+
+        leaderboards.onDeckDeleted(new DeckDeletedEvent(PUBLIC_DECK));
+
+        assertThat(board(LeaderboardScope.DECK, PUBLIC_DECK, LeaderboardMetric.FASTEST_TIME, 100).totalPlayers())
+                .isZero();
+        assertThat(board(LeaderboardScope.GLOBAL, null, LeaderboardMetric.FASTEST_TIME, 100).entries())
+                .extracting(LeaderboardEntryDto::gameId).containsExactly(2L);
+    }
+
+    @Test
+    void dropsADeckDeletedWhileARebuildReadsTheGames() {
+        MatchingResult deleted = game(1, 100, PUBLIC_DECK, 40, 12);
+        MatchingResult kept = game(2, 200, OTHER_DECK, 50, 12);
+        // The deck is deleted after the rebuild read its game, and another game on it completes meanwhile
+        when(matchingGameRepository.streamCompleted()).thenReturn(Stream.of(deleted, kept).peek(result -> {
+            if (result == kept) {
+                leaderboards.record(game(3, 300, PUBLIC_DECK, 20, 8));
+                leaderboards.onDeckDeleted(new DeckDeletedEvent(PUBLIC_DECK));
+            }
+        }));
+
+        leaderboards.rebuild();
+
+        assertThat(board(LeaderboardScope.GLOBAL, null, LeaderboardMetric.FASTEST_TIME, 100).entries())
+                .extracting(LeaderboardEntryDto::gameId).containsExactly(2L);
+        assertThat(board(LeaderboardScope.DECK, PUBLIC_DECK, LeaderboardMetric.FASTEST_TIME, 100).totalPlayers())
+                .isZero();
+    }
+
+    @Test
+    void movesTheGamesOfADeckMadePrivate() {
+        leaderboards.record(game(1, 100, PUBLIC_DECK, 40, 12));
+
+        leaderboards.onDeckListingChanged(new DeckListingChangedEvent(PUBLIC_DECK, SUBJECT, false));
+
+        assertThat(board(LeaderboardScope.GLOBAL, null, LeaderboardMetric.FASTEST_TIME, 100).totalPlayers())
+                .isZero();
+        assertThat(board(LeaderboardScope.SUBJECT, SUBJECT, LeaderboardMetric.FASTEST_TIME, 100).totalPlayers())
+                .isZero();
+        assertThat(board(LeaderboardScope.DECK, PUBLIC_DECK, LeaderboardMetric.FASTEST_TIME, 100).entries())
+                .extracting(LeaderboardEntryDto::gameId).containsExactly(1L);
+
+        leaderboards.onDeckListingChanged(new DeckListingChangedEvent(PUBLIC_DECK, SUBJECT, true));
+        assertThat(board(LeaderboardScope.GLOBAL, null, LeaderboardMetric.FASTEST_TIME, 100).entries())
+                .extracting(LeaderboardEntryDto::gameId).containsExactly(1L);
+    }
+
+    private LeaderboardDto board(LeaderboardScope scope, Long scopeId, LeaderboardMetric metric, long userId) {
+        return leaderboards.get(scope, scopeId, metric, 10, userId);
+    }
+
+    private static MatchingResult game(long gameId, long userId, long deckId, long seconds, int attempts) {
+        return new MatchingResult(gameId, userId, "Player", String.valueOf(userId), deckId, SUBJECT, true, seconds,
+                attempts, LocalDateTime.of(2026, 1, 1, 12, 0).plusMinutes(gameId));
+    }
+}
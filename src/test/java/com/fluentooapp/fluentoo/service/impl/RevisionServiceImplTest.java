@@ -0,0 +1,190 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.dto.AnswerBatchResponse;
+import com.fluentooapp.fluentoo.dto.AnswerRequest;
+import com.fluentooapp.fluentoo.entity.Deck;
+import com.fluentooapp.fluentoo.entity.FlashCard;
+import com.fluentooapp.fluentoo.entity.Revision;
+import com.fluentooapp.fluentoo.entity.RevisionMode;
+import com.fluentooapp.fluentoo.entity.Subject;
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.repository.DeckRepository;
+import com.fluentooapp.fluentoo.repository.FlashCardRepository;
+import com.fluentooapp.fluentoo.repository.SubjectRepository;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.security.ClaimsPrincipal;
+import com.fluentooapp.fluentoo.service.RevisionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Submits answer batches the way a client retrying after a lost response does,
+ * and checks each batch applies once, also when the session was lost in
+ * between and is restored from the revision row.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revision-service;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.fluentooapp.fluentoo.service.impl.MatchingGameServiceImplTest$RecordingStatementInspector",
+        "stats.buffer.flush-interval-ms=3600000"
+})
+class RevisionServiceImplTest {
+
+    @Autowired
+    private RevisionService revisionService;
+
+    @Autowired
+    private RevisionSessionStore revisionSessionStore;
+
+    @Autowired
+    private UserStatsWriteBuffer userStatsWriteBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashCardRepository flashCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    private List<FlashCard> cards;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Tester");
+        user.setEmail("ada-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        Subject subject = new Subject();
+        subject.setName("French " + System.nanoTime());
+        subject.setDescription("French vocabulary");
+        subject = subjectRepository.save(subject);
+
+        Deck deck = new Deck();
+        deck.setName("Animals");
+        deck.setSubject(subject);
+        deck.setCreatedBy(user);
+        deck.setPublic(false);
+        Deck savedDeck = deckRepository.save(deck);
+
+        cards = new ArrayList<>();
+        String[][] pairs = { { "cat", "chat" }, { "dog", "chien" }, { "horse", "cheval" } };
+        for (String[] pair : pairs) {
+            FlashCard card = new FlashCard();
+            card.setQuestion(pair[0]);
+            card.setAnswer(pair[1]);
+            card.setDeck(savedDeck);
+            cards.add(flashCardRepository.save(card));
+        }
+
+        ClaimsPrincipal principal = new ClaimsPrincipal(user.getId(), user.getEmail());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void skipsABatchResubmittedToTheSameSession() {
+        Revision revision = revisionService.newDeckRevision(cards.get(0).getDeck().getId(), user.getEmail(),
+                RevisionMode.ALL);
+        List<AnswerRequest> batch = List.of(
+                answer(cards.get(0), "chat", 1),
+                answer(cards.get(1), "chat", 2));
+
+        AnswerBatchResponse first = revisionService.submitAnswers(revision.getId(), batch);
+        assertThat(first.getApplied()).isEqualTo(2);
+        assertThat(first.getCorrectFlashcards()).isEqualTo(1);
+        int points = pendingPoints();
+
+        AnswerBatchResponse retried = revisionService.submitAnswers(revision.getId(), batch);
+        assertThat(retried.getApplied()).isZero();
+        assertThat(retried.getSkipped()).isEqualTo(2);
+        assertThat(retried.getCorrectFlashcards()).isEqualTo(1);
+        assertThat(pendingPoints()).isEqualTo(points);
+    }
+
+    @Test
+    void skipsABatchResubmittedAfterTheSessionIsLost() {
+        Revision revision = revisionService.newDeckRevision(cards.get(0).getDeck().getId(), user.getEmail(),
+                RevisionMode.ALL);
+        List<AnswerRequest> batch = List.of(
+                answer(cards.get(0), "chat", 1),
+                answer(cards.get(1), "chien", 2));
+
+        AnswerBatchResponse first = revisionService.submitAnswers(revision.getId(), batch);
+        assertThat(first.getApplied()).isEqualTo(2);
+        int points = pendingPoints();
+        // Written with the answers, not only when the session closes
+        assertThat(jdbcTemplate.queryForMap("SELECT last_answer_seq, correct_flashcards FROM revisions WHERE id = ?",
+                revision.getId()))
+                .containsEntry("LAST_ANSWER_SEQ", 2L)
+                .containsEntry("CORRECT_FLASHCARDS", 2);
+
+        // As after a crash: the session is gone without having been closed
+        loseSessions();
+
+        AnswerBatchResponse retried = revisionService.submitAnswers(revision.getId(), batch);
+        assertThat(retried.getApplied()).isZero();
+        assertThat(retried.getSkipped()).isEqualTo(2);
+        assertThat(retried.getCorrectFlashcards()).isEqualTo(2);
+        assertThat(pendingPoints()).isEqualTo(points);
+
+        AnswerBatchResponse next = revisionService.submitAnswers(revision.getId(),
+                List.of(answer(cards.get(2), "cheval", 3)));
+        assertThat(next.getApplied()).isEqualTo(1);
+        assertThat(next.getCorrectFlashcards()).isEqualTo(3);
+    }
+
+    private AnswerRequest answer(FlashCard card, String answer, long sequence) {
+        AnswerRequest request = new AnswerRequest();
+        request.setFlashcardId(card.getId());
+        request.setAnswer(answer);
+        request.setSequence(sequence);
+        return request;
+    }
+
+    private int pendingPoints() {
+        UserStatsDelta pending = userStatsWriteBuffer.pending(user.getId());
+        return pending == null ? 0 : pending.pointsEarned;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loseSessions() {
+        ((Map<Long, RevisionSession>) ReflectionTestUtils.getField(revisionSessionStore, "sessions")).clear();
+    }
+}
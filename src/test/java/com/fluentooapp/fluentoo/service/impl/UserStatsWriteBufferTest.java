@@ -0,0 +1,163 @@
+package com.fluentooapp.fluentoo.service.impl;
+
+import com.fluentooapp.fluentoo.entity.User;
+import com.fluentooapp.fluentoo.entity.UserStats;
+import com.fluentooapp.fluentoo.repository.UserRepository;
+import com.fluentooapp.fluentoo.repository.UserStatsRepository;
+import com.fluentooapp.fluentoo.security.ClaimsPrincipal;
+import com.fluentooapp.fluentoo.service.UserService;
+import com.fluentooapp.fluentoo.service.UserStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Buffers increments for a user with a stats row and one without, and checks
+ * they merge per user, show up in reads before the flush, and are written by
+ * it, creating the missing row. Score changes go through the same buffer.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-stats-write-buffer;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.fluentooapp.fluentoo.service.impl.MatchingGameServiceImplTest$RecordingStatementInspector",
+        "stats.buffer.flush-interval-ms=3600000"
+})
+class UserStatsWriteBufferTest {
+
+    @Autowired
+    private UserStatsWriteBuffer userStatsWriteBuffer;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User withStats;
+
+    private User withoutStats;
+
+    @BeforeEach
+    void setUp() {
+        userStatsWriteBuffer.flush();
+        withStats = saveUser("Ada");
+        withoutStats = saveUser("Grace");
+        userStatsRepository.save(UserStats.builder()
+                .user(withStats)
+                .studyStreak(3)
+                .pointsEarned(100)
+                .cardsReviewed(10)
+                .decksStudied(1)
+                .dailyPointsGoal(1500)
+                .lastUpdated(LocalDateTime.now())
+                .matchingGamesCompleted(0)
+                .matchingGamePoints(0)
+                .totalMatchesFound(0)
+                .totalMatchingAttempts(0)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void mergesIncrementsPerUserUntilTheFlushWritesThem() {
+        userStatsWriteBuffer.add(withStats.getId(), UserStatsDelta.study(10, 1, 0));
+        userStatsWriteBuffer.add(withStats.getId(), UserStatsDelta.study(15, 2, 1));
+        userStatsWriteBuffer.add(withoutStats.getId(), UserStatsDelta.study(5, 1, 0));
+
+        UserStatsDelta pending = userStatsWriteBuffer.pending(withStats.getId());
+        assertThat(pending.pointsEarned).isEqualTo(25);
+        assertThat(pending.cardsReviewed).isEqualTo(3);
+        assertThat(pending.decksStudied).isEqualTo(1);
+        // Reads add what the buffer still holds to the stored row
+        assertThat(userStatsService.findUserStats(withStats).getPointsEarned()).isEqualTo(125);
+        assertThat(stats(withStats)).containsEntry("POINTS_EARNED", 100);
+
+        userStatsWriteBuffer.flush();
+
+        assertThat(userStatsWriteBuffer.pending(withStats.getId())).isNull();
+        assertThat(userStatsWriteBuffer.pending(withoutStats.getId())).isNull();
+        assertThat(stats(withStats))
+                .containsEntry("POINTS_EARNED", 125)
+                .containsEntry("CARDS_REVIEWED", 13)
+                .containsEntry("DECKS_STUDIED", 2)
+                .containsEntry("STUDY_STREAK", 3);
+        assertThat(stats(withoutStats))
+                .containsEntry("POINTS_EARNED", 5)
+                .containsEntry("CARDS_REVIEWED", 1)
+                .containsEntry("DAILY_POINTS_GOAL", 1500);
+    }
+
+    @Test
+    void scoresGoThroughTheBufferAndCreateMissingRows() {
+        ClaimsPrincipal principal = new ClaimsPrincipal(withoutStats.getId(), withoutStats.getEmail());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        userService.increaseScore();
+        userService.increaseScore();
+        userService.decreaseScore();
+        assertThat(userStatsWriteBuffer.pending(withoutStats.getId()).pointsEarned).isEqualTo(25);
+
+        userStatsWriteBuffer.flush();
+        assertThat(stats(withoutStats)).containsEntry("POINTS_EARNED", 25);
+    }
+
+    @Test
+    void dropsIncrementsOfRolledBackTransactions() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userStatsWriteBuffer.add(withStats.getId(), UserStatsDelta.study(50, 5, 0));
+            status.setRollbackOnly();
+        });
+
+        assertThat(userStatsWriteBuffer.pending(withStats.getId())).isNull();
+        userStatsWriteBuffer.flush();
+        assertThat(stats(withStats)).containsEntry("POINTS_EARNED", 100);
+    }
+
+    private Map<String, Object> stats(User user) {
+        return jdbcTemplate.queryForMap("SELECT * FROM user_stats WHERE user_id = ?", user.getId());
+    }
+
+    private User saveUser(String firstName) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Tester");
+        user.setEmail(firstName.toLowerCase() + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,122 @@
+package com.fluentooapp.fluentoo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the banded Levenshtein distance against the full dynamic program, and
+ * the normalization applied before answers are compared.
+ */
+class AnswerMatcherTest {
+
+    private static final Set<String> ARTICLES = Set.of("a", "an", "the", "le", "la", "l");
+
+    @Test
+    void boundedDistanceOfKnownPairs() {
+        assertThat(AnswerMatcher.boundedDistance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(AnswerMatcher.boundedDistance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(AnswerMatcher.boundedDistance("flaw", "lawn", 2)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("same", "same", 0)).isZero();
+        assertThat(AnswerMatcher.boundedDistance("", "abc", 3)).isEqualTo(3);
+        assertThat(AnswerMatcher.boundedDistance("abc", "", 5)).isEqualTo(3);
+        assertThat(AnswerMatcher.boundedDistance("a", "abcd", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void boundedDistanceMatchesTheFullDistanceWithinTheBound() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int run = 0; run < 20_000; run++) {
+            String a = randomWord(random, random.nextInt(0, 12));
+            String b = random.nextBoolean() ? mutate(random, a) : randomWord(random, random.nextInt(0, 12));
+            int max = random.nextInt(0, 4);
+
+            int expected = Math.min(fullDistance(a, b), max + 1);
+            assertThat(AnswerMatcher.boundedDistance(a, b, max))
+                    .as("distance of '%s' and '%s' bounded by %d", a, b, max)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void boundedDistanceHandlesStringsLongerThanTheReusedRows() {
+        String a = "x".repeat(200) + "abc";
+        String b = "x".repeat(200) + "abd";
+        assertThat(AnswerMatcher.boundedDistance(a, b, 2)).isEqualTo(1);
+        assertThat(AnswerMatcher.boundedDistance("ab", "ac", 1)).isEqualTo(1);
+    }
+
+    @Test
+    void boundedDistanceAtTheEdgesOfTheBand() {
+        // No edit allowed: only equal strings are within the bound
+        assertThat(AnswerMatcher.boundedDistance("", "", 0)).isZero();
+        assertThat(AnswerMatcher.boundedDistance("cat", "cut", 0)).isEqualTo(1);
+        assertThat(AnswerMatcher.boundedDistance("cat", "cats", 0)).isEqualTo(1);
+        // Lengths differing by exactly the bound are still computed
+        assertThat(AnswerMatcher.boundedDistance("ab", "abcd", 2)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("", "ab", 2)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("ab", "", 1)).isEqualTo(2);
+        // A transposition is two edits, and shifted strings run along the band's edge
+        assertThat(AnswerMatcher.boundedDistance("ab", "ba", 2)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("ab", "ba", 1)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("abcdef", "bcdefg", 2)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("abcdef", "bcdefg", 1)).isEqualTo(2);
+        // Every edit at the end, after the band has followed a long common prefix
+        assertThat(AnswerMatcher.boundedDistance("prefix-ab", "prefix-ba", 3)).isEqualTo(2);
+        assertThat(AnswerMatcher.boundedDistance("prefix", "prefix-xy", 3)).isEqualTo(3);
+    }
+
+    @Test
+    void normalizeFoldsCaseAccentsPunctuationAndLeadingArticles() {
+        assertThat(AnswerMatcher.normalize("  The  Cat!  ", ARTICLES)).isEqualTo("cat");
+        assertThat(AnswerMatcher.normalize("L'Été", ARTICLES)).isEqualTo("ete");
+        assertThat(AnswerMatcher.normalize("ﬁne-tuned", ARTICLES)).isEqualTo("fine tuned");
+        assertThat(AnswerMatcher.normalize("theory", ARTICLES)).isEqualTo("theory");
+        assertThat(AnswerMatcher.normalize(null, ARTICLES)).isEmpty();
+    }
+
+    private static String randomWord(SplittableRandom random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    // Applies up to three random insertions, deletions or substitutions
+    private static String mutate(SplittableRandom random, String word) {
+        StringBuilder mutated = new StringBuilder(word);
+        int edits = random.nextInt(0, 4);
+        for (int i = 0; i < edits; i++) {
+            int kind = random.nextInt(3);
+            if (kind == 0 || mutated.length() == 0) {
+                mutated.insert(random.nextInt(mutated.length() + 1), (char) ('a' + random.nextInt(4)));
+            } else if (kind == 1) {
+                mutated.deleteCharAt(random.nextInt(mutated.length()));
+            } else {
+                mutated.setCharAt(random.nextInt(mutated.length()), (char) ('a' + random.nextInt(4)));
+            }
+        }
+        return mutated.toString();
+    }
+
+    private static int fullDistance(String a, String b) {
+        int[][] distance = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = distance[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                distance[i][j] = Math.min(substitution, Math.min(distance[i - 1][j], distance[i][j - 1]) + 1);
+            }
+        }
+        return distance[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,56 @@
+package com.fluentooapp.fluentoo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks eviction of the least recently used entry, expiry, and the
+ * conditional updates the caches rely on.
+ */
+class BoundedCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryPastTheMaxSize() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void expiredEntriesAreNeverReturned() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+        cache.put("kept", 1);
+        cache.put("expired", 2, System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("kept")).isEqualTo(1);
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.containsKey("expired")).isFalse();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.putIfAbsent("expired", 3)).isTrue();
+        assertThat(cache.get("expired")).isEqualTo(3);
+    }
+
+    @Test
+    void conditionalUpdatesOnlyApplyToTheExpectedValue() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertThat(cache.putIfAbsent("key", "first")).isTrue();
+        assertThat(cache.putIfAbsent("key", "second")).isFalse();
+
+        assertThat(cache.replace("key", "other", "third")).isFalse();
+        assertThat(cache.replace("key", "first", "third")).isTrue();
+        assertThat(cache.get("key")).isEqualTo("third");
+
+        cache.remove("key", "first");
+        assertThat(cache.get("key")).isEqualTo("third");
+        cache.remove("key", "third");
+        assertThat(cache.get("key")).isNull();
+    }
+}
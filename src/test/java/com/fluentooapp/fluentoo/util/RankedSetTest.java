@@ -0,0 +1,74 @@
+package com.fluentooapp.fluentoo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks ranks and ordered prefixes against a {@link TreeSet} through random
+ * additions and removals.
+ */
+class RankedSetTest {
+
+    @Test
+    void ranksAndListsLikeASortedSet() {
+        SplittableRandom random = new SplittableRandom(7);
+        RankedSet<Integer> ranked = new RankedSet<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int run = 0; run < 5_000; run++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertThat(ranked.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(ranked.add(value)).isEqualTo(expected.add(value));
+            }
+            assertThat(ranked.size()).isEqualTo(expected.size());
+
+            int probe = random.nextInt(500);
+            assertThat(ranked.rank(probe)).isEqualTo(expected.headSet(probe, false).size());
+            assertThat(ranked.contains(probe)).isEqualTo(expected.contains(probe));
+        }
+
+        assertThat(ranked.first(ranked.size())).containsExactlyElementsOf(expected);
+        assertThat(ranked.first(10)).containsExactlyElementsOf(new ArrayList<>(expected).subList(0, 10));
+    }
+
+    @Test
+    void firstAndRankAtTheEnds() {
+        RankedSet<String> ranked = new RankedSet<>(Comparator.naturalOrder());
+        assertThat(ranked.first(3)).isEmpty();
+        assertThat(ranked.rank("m")).isZero();
+
+        List.of("m", "c", "x", "a").forEach(ranked::add);
+        assertThat(ranked.add("c")).isFalse();
+        assertThat(ranked.first(0)).isEmpty();
+        assertThat(ranked.first(10)).containsExactly("a", "c", "m", "x");
+        assertThat(ranked.rank("a")).isZero();
+        assertThat(ranked.rank("x")).isEqualTo(3);
+        // Absent elements rank where they would be inserted
+        assertThat(ranked.rank("b")).isEqualTo(1);
+        assertThat(ranked.rank("z")).isEqualTo(4);
+
+        assertThat(ranked.remove("q")).isFalse();
+        assertThat(ranked.remove("a")).isTrue();
+        assertThat(ranked.first(2)).containsExactly("c", "m");
+        assertThat(ranked.rank("x")).isEqualTo(2);
+    }
+
+    @Test
+    void ordersByTheComparatorAlone() {
+        // Equal under the comparator counts as present, whatever equals() says
+        RankedSet<String> ranked = new RankedSet<>(Comparator.comparingInt(String::length));
+        assertThat(ranked.add("aa")).isTrue();
+        assertThat(ranked.add("bb")).isFalse();
+        assertThat(ranked.contains("cc")).isTrue();
+        assertThat(ranked.remove("dd")).isTrue();
+        assertThat(ranked.size()).isZero();
+    }
+}